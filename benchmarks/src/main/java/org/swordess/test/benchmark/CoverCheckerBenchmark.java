@@ -0,0 +1,102 @@
+package org.swordess.test.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.TestClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.swordess.test.CoverChecker;
+import org.swordess.test.CoverageDiff;
+import org.swordess.test.CoverageDiff.Uncovered;
+import org.swordess.test.model.CoverageIndex;
+import org.swordess.test.model.Descriptors;
+import org.swordess.test.model.TestCaseDescriptor;
+import org.swordess.test.model.TestClassDescriptor;
+import org.swordess.test.model.TestUnitDescriptor;
+
+/**
+ * Measures the overhead {@link CoverChecker} adds to a test class, phase by
+ * phase, and as a whole against a plain {@link BlockJUnit4ClassRunner}.
+ * <p>
+ * The descriptor cache is disabled in the forked JVMs, so every run extracts
+ * the descriptors by reflection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dswordess.test.cacheDir=")
+public class CoverCheckerBenchmark {
+
+	@Param({ "10", "1000", "10000" })
+	public int coverMethods;
+
+	private Class<?> testClass;
+	private TestClass junitTestClass;
+
+	private List<TestUnitDescriptor> expectedDescriptors;
+	private List<TestCaseDescriptor> coveredDescriptors;
+	private CoverageIndex index;
+	private List<Uncovered> uncovered;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		testClass = SyntheticTestClasses.generate(coverMethods);
+		junitTestClass = new TestClass(testClass);
+
+		TestClassDescriptor classDescriptor = new TestClassDescriptor(junitTestClass);
+		expectedDescriptors = classDescriptor.getExpectedTestUnitsDescriptors();
+		coveredDescriptors = classDescriptor.getCoveredTestCaseDescriptors();
+		index = Descriptors.index(coveredDescriptors);
+		uncovered = CoverageDiff.diff(expectedDescriptors, index);
+	}
+
+	@Benchmark
+	public TestClassDescriptor extractDescriptors() {
+		return new TestClassDescriptor(junitTestClass);
+	}
+
+	@Benchmark
+	public CoverageIndex combine() {
+		return Descriptors.index(coveredDescriptors);
+	}
+
+	@Benchmark
+	public List<Uncovered> diff() {
+		return CoverageDiff.diff(expectedDescriptors, index);
+	}
+
+	@Benchmark
+	public String generateErrorMsg() {
+		return CoverageDiff.generateErrorMsg(uncovered);
+	}
+
+	@Benchmark
+	public RunNotifier runWithBlockJUnit4ClassRunner() throws Exception {
+		RunNotifier notifier = new RunNotifier();
+		new BlockJUnit4ClassRunner(testClass).run(notifier);
+		return notifier;
+	}
+
+	@Benchmark
+	public RunNotifier runWithCoverChecker() throws Exception {
+		RunNotifier notifier = new RunNotifier();
+		new CoverChecker(testClass).run(notifier);
+		return notifier;
+	}
+
+}
@@ -0,0 +1,113 @@
+package org.swordess.test.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * Generates and compiles test classes with a given number of {@link org.swordess.test.Cover}
+ * methods and a {@link org.swordess.test.TestCaseAnalysis} sized accordingly:
+ * <ul>
+ * <li>one analysed signature for every 10 methods</li>
+ * <li>{@value #CONDITIONS} valid ECs, {@value #CONDITIONS} invalid ECs and
+ * {@value #CONDITIONS} boundaries for each signature</li>
+ * <li>each method covers 3 of each kind, so the 10 methods of a signature
+ * leave some of it uncovered</li>
+ * </ul>
+ * The classes are compiled without annotation processing, so the runner
+ * describes them by reflection.
+ */
+class SyntheticTestClasses {
+
+	static final int CONDITIONS = 32;
+
+	private static final int METHODS_PER_SIGNATURE = 10;
+	private static final int COVERED_PER_METHOD = 3;
+
+	static Class<?> generate(int coverMethods) throws IOException, ClassNotFoundException {
+		String simpleName = "Synthetic" + coverMethods;
+		File dir = Files.createTempDirectory("swordess-benchmark").toFile();
+		File source = new File(dir, simpleName + ".java");
+		try (Writer out = new OutputStreamWriter(new FileOutputStream(source), StandardCharsets.UTF_8)) {
+			out.write(sourceOf(simpleName, coverMethods));
+		}
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (null == compiler) {
+			throw new IllegalStateException("benchmarks must run on a JDK");
+		}
+		int status = compiler.run(null, null, null, "-proc:none", "-nowarn",
+				"-cp", System.getProperty("java.class.path"),
+				"-d", dir.getAbsolutePath(), source.getAbsolutePath());
+		if (status != 0) {
+			throw new IllegalStateException("cannot compile " + source);
+		}
+
+		@SuppressWarnings("resource")
+		URLClassLoader loader = new URLClassLoader(new URL[] { dir.toURI().toURL() },
+				SyntheticTestClasses.class.getClassLoader());
+		return loader.loadClass(simpleName);
+	}
+
+	private static String sourceOf(String simpleName, int coverMethods) {
+		int signatures = Math.max(1, coverMethods / METHODS_PER_SIGNATURE);
+
+		StringBuilder src = new StringBuilder();
+		src.append("import org.junit.Test;\n");
+		src.append("import org.swordess.test.*;\n");
+		src.append("import org.swordess.test.EquivalentCondition.Condition;\n");
+		src.append("import org.swordess.test.TestCaseAnalysis.MethodAnalysis;\n");
+		src.append("@TestCaseAnalysis({\n");
+		for (int s = 0; s < signatures; s++) {
+			src.append(s == 0 ? "" : ",\n");
+			src.append("@MethodAnalysis(signature = \"m").append(s).append("()\",\n");
+			src.append(" equivalentConditions = @EquivalentCondition(name = \"c\",\n  valid = {");
+			appendConditions(src, "@Condition(nbr = %d, desc = \"v\")", 1);
+			src.append("},\n  invalid = {");
+			appendConditions(src, "@Condition(nbr = %d, desc = \"i\")", CONDITIONS + 1);
+			src.append("}),\n boundaries = {");
+			appendConditions(src, "@Boundary(nbr = %d, desc = \"b\")", 1);
+			src.append("})");
+		}
+		src.append("\n})\n");
+		src.append("public class ").append(simpleName).append(" {\n");
+		for (int m = 0; m < coverMethods; m++) {
+			int signature = m % signatures;
+			int first = (m / signatures % METHODS_PER_SIGNATURE) * COVERED_PER_METHOD + 1;
+			src.append("@Cover(methodSignature = \"m").append(signature).append("()\"");
+			src.append(", validECs = ").append(coveredOf(first));
+			src.append(", invalidECs = ").append(coveredOf(CONDITIONS + first));
+			src.append(", boundaries = ").append(coveredOf(first));
+			src.append(") @Test public void test").append(m).append("() {}\n");
+		}
+		src.append("}\n");
+		return src.toString();
+	}
+
+	private static void appendConditions(StringBuilder src, String format, int first) {
+		for (int i = 0; i < CONDITIONS; i++) {
+			src.append(i == 0 ? "" : ", ").append(String.format(format, first + i));
+		}
+	}
+
+	private static String coveredOf(int first) {
+		StringBuilder nbrs = new StringBuilder("{");
+		for (int i = 0; i < COVERED_PER_METHOD; i++) {
+			nbrs.append(i == 0 ? "" : ", ").append(first + i);
+		}
+		return nbrs.append('}').toString();
+	}
+
+	private SyntheticTestClasses() {
+	}
+
+}
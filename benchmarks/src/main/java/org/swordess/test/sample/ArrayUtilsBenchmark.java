@@ -0,0 +1,62 @@
+package org.swordess.test.sample;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares equal ranges of two arrays, the worst case since every byte is
+ * visited, with {@link ArrayUtils#equals(byte[], int, byte[], int, int)}
+ * and its byte-by-byte fallback for Java 8 and older.
+ * <p>
+ * An offset of 0 keeps both ranges aligned, any other one misaligns the
+ * source range against the destination range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayUtilsBenchmark {
+
+	@Param({ "1", "7", "16", "512", "4096", "65536", "1048576" })
+	public int length;
+
+	@Param({ "0", "3" })
+	public int srcOffset;
+
+	private byte[] src;
+	private byte[] dest;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dest = new byte[length];
+		new Random(42).nextBytes(dest);
+		src = new byte[srcOffset + length];
+		System.arraycopy(dest, 0, src, srcOffset, length);
+	}
+
+	@Benchmark
+	public boolean equals() {
+		return ArrayUtils.equals(src, srcOffset, dest, 0, length);
+	}
+
+	@Benchmark
+	public boolean equalsByBytes() {
+		return -1 == ArrayUtils.mismatchByBytes(src, srcOffset, dest, 0, length);
+	}
+
+}
@@ -5,6 +5,7 @@ import java.lang.annotation.RetentionPolicy;
 
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Boundary {
+	/** Should not be negative. */
 	public int nbr();
 	public String desc();
 }
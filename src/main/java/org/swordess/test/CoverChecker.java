@@ -1,22 +1,194 @@
 package org.swordess.test;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.InitializationError;
 import org.junit.runners.model.Statement;
+import org.swordess.test.model.CoverageRegistry;
+import org.swordess.test.model.CoverageShards;
 import org.swordess.test.model.Descriptors;
 import org.swordess.test.model.TestCaseDescriptor;
 import org.swordess.test.model.TestClassDescriptor;
 import org.swordess.test.model.TestUnitDescriptor;
-import org.swordess.test.util.CollectionUtils;
+import org.swordess.test.report.CoverageReports;
 
 
 public class CoverChecker extends BlockJUnit4ClassRunner {
 
+	private static final Logger LOG = Logger.getLogger(CoverChecker.class.getName());
+
+	/**
+	 * System property which, when set to <tt>true</tt>, makes the checker
+	 * compare the analysis with the declared {@link Cover}s before running any
+	 * test method, and fail the class straight away if they cannot satisfy
+	 * it. The comparison runs while the class is being set up.
+	 */
+	public static final String PREFLIGHT_PROPERTY = "swordess.test.preflight";
+	
+	/**
+	 * System property which, when set to <tt>true</tt>, makes the checker run
+	 * only a minimal selection of the {@link Cover} methods which still covers
+	 * the whole analysis, and report the others as ignored. Test methods
+	 * without {@link Cover} always run. The mode is ignored under a
+	 * {@link CoverageSuite} or with shards, where the {@link Cover}s of other
+	 * classes take part in the check.
+	 * <p>
+	 * The selection favours the methods which ran fastest in the runs recorded
+	 * in the cache directory, if
+	 * {@value org.swordess.test.model.DescriptorCache#CACHE_DIR_PROPERTY} is
+	 * set. The runtimes are recorded in this mode, or when
+	 * {@value #RECORD_RUNTIMES_PROPERTY} is <tt>true</tt>.
+	 * 
+	 * @see MinimalCoverSelector
+	 */
+	public static final String MINIMAL_PROPERTY = "swordess.test.minimal";
+	
+	/**
+	 * System property which, when set to <tt>true</tt>, makes the checker
+	 * record the runtimes of the test methods for later runs in the minimal
+	 * mode, even when this run is not minimal.
+	 * 
+	 * @see #MINIMAL_PROPERTY
+	 */
+	public static final String RECORD_RUNTIMES_PROPERTY = "swordess.test.recordRuntimes";
+	
+	/**
+	 * System property which, when set to <tt>true</tt>, makes the checker
+	 * record the wall-clock and CPU time of each test method and write the
+	 * cost of each EC and boundary to
+	 * {@value #PROFILE_DIR}<tt>/&lt;class name&gt;.txt</tt>.
+	 * 
+	 * @see CoverageProfile
+	 */
+	public static final String PROFILE_PROPERTY = "swordess.test.profile";
+	
+	public static final String PROFILE_DIR = "target/swordess-test-profile";
+	
+	/*
+	 * When the CoverageShards.SHARD_DIR_PROPERTY system property is set, the
+	 * checker appends the coverage of the class to the shard of this JVM
+	 * instead of checking it, and CoverageShardMerger checks all the shards of
+	 * the run once every fork has finished. The preflight check is skipped then.
+	 */
+	
+	private final CoverageRegistry registry;
+	
+	// null if there is nothing to check
+	private final TestClassDescriptor classDescriptor;
+	
+	private CoverageRecorder recorder;
+	
+	private FutureTask<Void> preflight;
+	
+	// names of the Cover methods skipped in the minimal mode
+	private Set<String> skippedMethods = Collections.emptySet();
+	
 	public CoverChecker(Class<?> clazz) throws InitializationError {
+		this(clazz, null);
+	}
+	
+	/**
+	 * Constructs a checker which hands the coverage of the class to the given
+	 * registry instead of checking it by itself.
+	 * 
+	 * @see CoverageSuite
+	 */
+	CoverChecker(Class<?> clazz, CoverageRegistry registry) throws InitializationError {
 		super(clazz);
+		this.registry = registry;
+		
+		// with shards, the covered cases of any class may satisfy the analysis of another
+		if (null != registry || CoverageShards.isEnabled() || clazz.isAnnotationPresent(TestCaseAnalysis.class)) {
+			classDescriptor = TestClassDescriptor.load(getTestClass());
+		} else {
+			classDescriptor = null;
+		}
+		
+		Parallel parallel = clazz.getAnnotation(Parallel.class);
+		if (null != parallel) {
+			setScheduler(new ParallelScheduler(clazz.getSimpleName(), parallel.threads()));
+		}
+	}
+	
+	@Override
+	public void run(RunNotifier notifier) {
+		if (null == classDescriptor) {
+			super.run(notifier);
+			return;
+		}
+		
+		// the analysis may be covered by other classes under a suite or with shards
+		boolean minimal = Boolean.getBoolean(MINIMAL_PROPERTY) && null == registry && !CoverageShards.isEnabled();
+		MethodRuntimes runtimes = minimal || Boolean.getBoolean(RECORD_RUNTIMES_PROPERTY)
+				? MethodRuntimes.of(getTestClass().getJavaClass()) : null;
+		if (minimal) {
+			skippedMethods = selectSkippedMethods(null == runtimes
+					? Collections.<String, Long>emptyMap() : runtimes.load());
+		}
+		
+		boolean profile = Boolean.getBoolean(PROFILE_PROPERTY);
+		recorder = new CoverageRecorder(getTestClass().getJavaClass(),
+				classDescriptor.getCoveredTestCaseDescriptors(), profile);
+		notifier.addListener(recorder);
+		try {
+			super.run(notifier);
+		} finally {
+			notifier.removeListener(recorder);
+			if (null != runtimes) {
+				runtimes.update(recorder.getRuntimes());
+			}
+			if (profile) {
+				writeProfile();
+			}
+		}
+	}
+	
+	private void writeProfile() {
+		String className = getTestClass().getName();
+		CoverageProfile profile = new CoverageProfile(className, recorder.getCoveredTestCaseDescriptors(),
+				recorder.getRuntimes(), recorder.getCpuTimes());
+		try {
+			profile.writeTo(new File(PROFILE_DIR, className + ".txt"));
+		} catch (IOException e) {
+			// the profile is only a diagnostic
+			LOG.log(Level.WARNING, "cannot write coverage profile of " + className, e);
+		}
+	}
+	
+	private Set<String> selectSkippedMethods(Map<String, Long> runtimes) {
+		Set<String> selected = MinimalCoverSelector.select(
+				classDescriptor.getExpectedTestUnitsDescriptors(),
+				classDescriptor.getCoveredTestCaseDescriptors(), runtimes);
+		Set<String> skipped = new HashSet<>();
+		for (TestCaseDescriptor declared : classDescriptor.getCoveredTestCaseDescriptors()) {
+			if (!selected.contains(declared.getTestMethodName())) {
+				skipped.add(declared.getTestMethodName());
+			}
+		}
+		return skipped;
+	}
+	
+	@Override
+	protected void runChild(FrameworkMethod method, RunNotifier notifier) {
+		if (skippedMethods.contains(method.getName())) {
+			notifier.fireTestIgnored(describeChild(method));
+			return;
+		}
+		super.runChild(method, notifier);
 	}
 	
 	@Override
@@ -25,65 +197,80 @@ public class CoverChecker extends BlockJUnit4ClassRunner {
 		return new Statement() {
 			@Override
 			public void evaluate() throws Throwable {
+				if (null != classDescriptor && null == registry && !CoverageShards.isEnabled()
+						&& Boolean.getBoolean(PREFLIGHT_PROPERTY)) {
+					startPreflight();
+				}
 				statement.evaluate();
-				checkExpectedCasesAndCoveredCases();
+				if (null != classDescriptor) {
+					checkExpectedCasesAndCoveredCases();
+				}
 			}
 		};
 	}
 
-	private void checkExpectedCasesAndCoveredCases() throws UncoveredCasesException {
-		if (getTestClass().getJavaClass().isAnnotationPresent(TestCaseAnalysis.class)) {
-			TestClassDescriptor classDescriptor = new TestClassDescriptor(getTestClass());
-			List<TestUnitDescriptor> expectedUnits = classDescriptor.getExpectedTestUnitsDescriptors();
-			List<TestCaseDescriptor> coveredCases = classDescriptor.getCoveredTestCaseDescriptors();
-			diff(expectedUnits, Descriptors.combine(coveredCases));
-		}
+	@Override
+	protected Statement childrenInvoker(RunNotifier notifier) {
+		final Statement statement = super.childrenInvoker(notifier);
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				awaitPreflight();
+				statement.evaluate();
+			}
+		};
 	}
-
-	private void diff(List<TestUnitDescriptor> expectedUnits,
-			List<TestUnitDescriptor> coveredUnits) throws UncoveredCasesException {
-		StringBuilder errorMsg = new StringBuilder();
-		for (TestUnitDescriptor expectedUnit : expectedUnits) {
-			List<Integer> uncoveredValidECs = expectedUnit.getValidECs();
-			List<Integer> uncoveredInvalidECs = expectedUnit.getInvalidECs();
-			List<Integer> uncoveredBoundaries = expectedUnit.getBoundaries();
-			
-			TestUnitDescriptor coveredUnit = Descriptors.select(coveredUnits,
-					expectedUnit.getMethodSignature());
-			if (null != coveredUnit) {
-				uncoveredValidECs.removeAll(coveredUnit.getValidECs());
-				uncoveredInvalidECs.removeAll(coveredUnit.getInvalidECs());
-				uncoveredBoundaries.removeAll(coveredUnit.getBoundaries());
+	
+	private void startPreflight() {
+		preflight = new FutureTask<>(new Callable<Void>() {
+			@Override
+			public Void call() throws UncoveredCasesException {
+				CoverageDiff.check(classDescriptor.getExpectedTestUnitsDescriptors(),
+						Descriptors.index(classDescriptor.getCoveredTestCaseDescriptors()));
+				return null;
 			}
-			
-			generateErrorMsg(errorMsg, expectedUnit.getMethodSignature(),
-					uncoveredValidECs, uncoveredInvalidECs, uncoveredBoundaries);
+		});
+		Thread thread = new Thread(preflight, "preflight-" + getTestClass().getJavaClass().getSimpleName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	private void awaitPreflight() throws Throwable {
+		if (null == preflight) {
+			return;
 		}
-		
-		if (errorMsg.length() > 0) {
-			throw new UncoveredCasesException(errorMsg.toString());
+		try {
+			preflight.get();
+		} catch (ExecutionException e) {
+			throw e.getCause();
+		} finally {
+			preflight = null;
 		}
 	}
-	
-	private void generateErrorMsg(StringBuilder errorMsg, String signature,
-			List<Integer> uncoveredValidECs, List<Integer> uncoveredInvalidECs,
-			List<Integer> uncoveredBoundaries) {
-		
-		if (CollectionUtils.isNotEmpty(uncoveredValidECs)
-				|| CollectionUtils.isNotEmpty(uncoveredInvalidECs)
-				|| CollectionUtils.isNotEmpty(uncoveredBoundaries)) {
-			errorMsg.append(">>> Uncovered");
-			errorMsg.append("\nmethodSignature: " + signature);
-			if (!uncoveredValidECs.isEmpty()) {
-				errorMsg.append("\nvalidECs: " + uncoveredValidECs);
-			}
-			if (!uncoveredInvalidECs.isEmpty()) {
-				errorMsg.append("\ninvalidECs: " + uncoveredInvalidECs);
-			}
-			if (!uncoveredBoundaries.isEmpty()) {
-				errorMsg.append("\nboundaries: " + uncoveredBoundaries);
-			}
+
+	private void checkExpectedCasesAndCoveredCases() throws UncoveredCasesException {
+		List<TestUnitDescriptor> expectedUnits = classDescriptor.getExpectedTestUnitsDescriptors();
+		List<TestCaseDescriptor> coveredCases = recorder.getCoveredTestCaseDescriptors();
+		CoverageReports.record(getTestClass().getName(), expectedUnits, coveredCases);
+		if (CoverageShards.isEnabled()) {
+			// checked by CoverageShardMerger once every fork has finished
+			recordShard(expectedUnits, coveredCases);
+		} else if (null != registry) {
+			registry.register(expectedUnits, coveredCases);
+		} else {
+			CoverageDiff.check(expectedUnits, Descriptors.index(coveredCases));
 		}
 	}
 	
+	private void recordShard(List<TestUnitDescriptor> expectedUnits, List<TestCaseDescriptor> coveredCases)
+			throws UncoveredCasesException {
+		try {
+			CoverageShards.record(getTestClass().getName(), expectedUnits, coveredCases);
+		} catch (IOException e) {
+			// the coverage would go unchecked otherwise
+			throw new UncoveredCasesException("cannot record coverage shard of "
+					+ getTestClass().getName() + ": " + e);
+		}
+	}
+
 }
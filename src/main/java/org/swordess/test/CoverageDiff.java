@@ -0,0 +1,114 @@
+package org.swordess.test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.swordess.test.model.CoverageIndex;
+import org.swordess.test.model.CoverageSet;
+import org.swordess.test.model.TestUnitDescriptor;
+
+/**
+ * Compares expected test units with covered ones.
+ */
+public class CoverageDiff {
+
+	/**
+	 * @throws UncoveredCasesException
+	 *             if any EC or boundary of the expected units is not covered,
+	 *             with a message listing all of them
+	 */
+	public static void check(Collection<TestUnitDescriptor> expectedUnits,
+			CoverageIndex coveredUnits) throws UncoveredCasesException {
+		List<Uncovered> uncovered = diff(expectedUnits, coveredUnits);
+		if (!uncovered.isEmpty()) {
+			throw new UncoveredCasesException(generateErrorMsg(uncovered));
+		}
+	}
+	
+	/**
+	 * Returns what is left uncovered of each expected unit, skipping the
+	 * units which are fully covered.
+	 */
+	public static List<Uncovered> diff(Collection<TestUnitDescriptor> expectedUnits,
+			CoverageIndex coveredUnits) {
+		List<Uncovered> uncovered = new ArrayList<>();
+		for (TestUnitDescriptor expectedUnit : expectedUnits) {
+			CoverageSet uncoveredValidECs = expectedUnit.getValidECs();
+			CoverageSet uncoveredInvalidECs = expectedUnit.getInvalidECs();
+			CoverageSet uncoveredBoundaries = expectedUnit.getBoundaries();
+			
+			TestUnitDescriptor coveredUnit = coveredUnits.get(expectedUnit.getMethodSignature());
+			if (null != coveredUnit) {
+				uncoveredValidECs = uncoveredValidECs.difference(coveredUnit.getValidECs());
+				uncoveredInvalidECs = uncoveredInvalidECs.difference(coveredUnit.getInvalidECs());
+				uncoveredBoundaries = uncoveredBoundaries.difference(coveredUnit.getBoundaries());
+			}
+			
+			if (!uncoveredValidECs.isEmpty()
+					|| !uncoveredInvalidECs.isEmpty()
+					|| !uncoveredBoundaries.isEmpty()) {
+				uncovered.add(new Uncovered(expectedUnit.getMethodSignature(),
+						uncoveredValidECs, uncoveredInvalidECs, uncoveredBoundaries));
+			}
+		}
+		return uncovered;
+	}
+	
+	public static String generateErrorMsg(List<Uncovered> uncovered) {
+		StringBuilder errorMsg = new StringBuilder();
+		for (Uncovered unit : uncovered) {
+			errorMsg.append(">>> Uncovered");
+			errorMsg.append("\nmethodSignature: " + unit.signature);
+			if (!unit.validECs.isEmpty()) {
+				errorMsg.append("\nvalidECs: " + unit.validECs);
+			}
+			if (!unit.invalidECs.isEmpty()) {
+				errorMsg.append("\ninvalidECs: " + unit.invalidECs);
+			}
+			if (!unit.boundaries.isEmpty()) {
+				errorMsg.append("\nboundaries: " + unit.boundaries);
+			}
+		}
+		return errorMsg.toString();
+	}
+	
+	/**
+	 * What is left uncovered of one expected unit.
+	 */
+	public static class Uncovered {
+		
+		private final String signature;
+		private final CoverageSet validECs;
+		private final CoverageSet invalidECs;
+		private final CoverageSet boundaries;
+		
+		Uncovered(String signature, CoverageSet validECs, CoverageSet invalidECs, CoverageSet boundaries) {
+			this.signature = signature;
+			this.validECs = validECs;
+			this.invalidECs = invalidECs;
+			this.boundaries = boundaries;
+		}
+
+		public String getSignature() {
+			return signature;
+		}
+
+		public CoverageSet getValidECs() {
+			return validECs;
+		}
+
+		public CoverageSet getInvalidECs() {
+			return invalidECs;
+		}
+
+		public CoverageSet getBoundaries() {
+			return boundaries;
+		}
+		
+	}
+	
+	private CoverageDiff() {
+	}
+	
+}
@@ -0,0 +1,196 @@
+package org.swordess.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.swordess.test.model.CoverageSet;
+import org.swordess.test.model.TestCaseDescriptor;
+
+/**
+ * The cost of the coverage of one test class: the time of each passed
+ * {@link Cover} method is split evenly among the ECs and boundaries it
+ * covers, so the costs of all conditions add up to the time of the methods.
+ * <p>
+ * A method is redundant if every condition it covers is covered by another
+ * passed method as well; removing a single redundant method never loses
+ * coverage.
+ */
+class CoverageProfile {
+
+	private final String className;
+
+	// in the order of the analysis
+	private final Map<String, ConditionCost> conditionCosts = new LinkedHashMap<>();
+	private final List<MethodCost> methodCosts = new ArrayList<>();
+
+	private long totalNanos;
+	private long totalCpuNanos;
+
+	/**
+	 * @param className
+	 *            the name of the test class
+	 * @param passedCases
+	 *            the test cases of the methods which have passed
+	 * @param runtimes
+	 *            the wall-clock time in nanoseconds of each method, by name
+	 * @param cpuTimes
+	 *            the CPU time in nanoseconds of each method, by name, may be
+	 *            empty
+	 */
+	CoverageProfile(String className, Collection<TestCaseDescriptor> passedCases,
+			Map<String, Long> runtimes, Map<String, Long> cpuTimes) {
+		this.className = className;
+
+		for (TestCaseDescriptor passedCase : passedCases) {
+			Long nanos = runtimes.get(passedCase.getTestMethodName());
+			if (null == nanos) {
+				continue;
+			}
+			Long cpuNanos = cpuTimes.get(passedCase.getTestMethodName());
+			MethodCost methodCost = new MethodCost(passedCase, nanos, null == cpuNanos ? 0 : cpuNanos);
+			methodCosts.add(methodCost);
+			totalNanos += methodCost.nanos;
+			totalCpuNanos += methodCost.cpuNanos;
+
+			List<String> conditions = conditionsOf(passedCase);
+			for (String condition : conditions) {
+				ConditionCost conditionCost = conditionCosts.get(condition);
+				if (null == conditionCost) {
+					conditionCost = new ConditionCost(condition);
+					conditionCosts.put(condition, conditionCost);
+				}
+				conditionCost.nanos += methodCost.nanos / conditions.size();
+				conditionCost.cpuNanos += methodCost.cpuNanos / conditions.size();
+				conditionCost.coveringMethods++;
+			}
+			methodCost.conditions = conditions;
+		}
+	}
+
+	private static List<String> conditionsOf(TestCaseDescriptor testCase) {
+		List<String> conditions = new ArrayList<>();
+		addConditions(conditions, testCase.getMethodSignature(), "valid EC", testCase.getValidECs());
+		addConditions(conditions, testCase.getMethodSignature(), "invalid EC", testCase.getInvalidECs());
+		addConditions(conditions, testCase.getMethodSignature(), "boundary", testCase.getBoundaries());
+		return conditions;
+	}
+
+	private static void addConditions(List<String> conditions, String signature, String kind, CoverageSet nbrs) {
+		for (int nbr : nbrs.toArray()) {
+			conditions.add(signature + " " + kind + " " + nbr);
+		}
+	}
+
+	/**
+	 * Returns the conditions, the most expensive first.
+	 */
+	List<ConditionCost> getConditionCosts() {
+		List<ConditionCost> sorted = new ArrayList<>(conditionCosts.values());
+		Collections.sort(sorted, new Comparator<ConditionCost>() {
+			@Override
+			public int compare(ConditionCost c1, ConditionCost c2) {
+				return Long.compare(c2.nanos, c1.nanos);
+			}
+		});
+		return sorted;
+	}
+
+	/**
+	 * Returns the redundant methods, the slowest first.
+	 */
+	List<MethodCost> getRedundantMethodCosts() {
+		List<MethodCost> redundant = new ArrayList<>();
+		for (MethodCost methodCost : methodCosts) {
+			if (isRedundant(methodCost)) {
+				redundant.add(methodCost);
+			}
+		}
+		Collections.sort(redundant, new Comparator<MethodCost>() {
+			@Override
+			public int compare(MethodCost m1, MethodCost m2) {
+				return Long.compare(m2.nanos, m1.nanos);
+			}
+		});
+		return redundant;
+	}
+
+	private boolean isRedundant(MethodCost methodCost) {
+		for (String condition : methodCost.conditions) {
+			if (conditionCosts.get(condition).coveringMethods < 2) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	void writeTo(File file) throws IOException {
+		File dir = file.getParentFile();
+		if (null != dir && !dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("cannot create " + dir);
+		}
+
+		try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			out.printf("# cost of coverage of %s%n", className);
+			out.printf("# %d covering methods, wall %.3f ms, cpu %.3f ms%n",
+					methodCosts.size(), millis(totalNanos), millis(totalCpuNanos));
+
+			out.printf("%n## conditions, the most expensive first%n");
+			out.printf("%12s %12s %6s  %s%n", "wall ms", "cpu ms", "tests", "condition");
+			for (ConditionCost conditionCost : getConditionCosts()) {
+				out.printf("%12.3f %12.3f %6d  %s%n", millis(conditionCost.nanos), millis(conditionCost.cpuNanos),
+						conditionCost.coveringMethods, conditionCost.condition);
+			}
+
+			out.printf("%n## redundant methods, the slowest first%n");
+			out.printf("%12s %12s  %s%n", "wall ms", "cpu ms", "method");
+			for (MethodCost methodCost : getRedundantMethodCosts()) {
+				out.printf("%12.3f %12.3f  %s%n", millis(methodCost.nanos), millis(methodCost.cpuNanos),
+						methodCost.testCase.getTestMethodName());
+			}
+		}
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1e6;
+	}
+
+	static class ConditionCost {
+
+		final String condition;
+		long nanos;
+		long cpuNanos;
+		int coveringMethods;
+
+		ConditionCost(String condition) {
+			this.condition = condition;
+		}
+
+	}
+
+	static class MethodCost {
+
+		final TestCaseDescriptor testCase;
+		final long nanos;
+		final long cpuNanos;
+		List<String> conditions;
+
+		MethodCost(TestCaseDescriptor testCase, long nanos, long cpuNanos) {
+			this.testCase = testCase;
+			this.nanos = nanos;
+			this.cpuNanos = cpuNanos;
+		}
+
+	}
+
+}
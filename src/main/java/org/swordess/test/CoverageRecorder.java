@@ -0,0 +1,128 @@
+package org.swordess.test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.swordess.test.model.TestCaseDescriptor;
+
+/**
+ * Records the test cases of one test class which have actually covered
+ * something, i.e. the ones which finished without failing or being skipped
+ * by an assumption.
+ * <p>
+ * The recorder holds no locks, so test methods may finish concurrently.
+ */
+class CoverageRecorder extends RunListener {
+
+	private static final Object FAILED = new Object();
+	
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private final String className;
+	private final Map<String, TestCaseDescriptor> methodNameToDescriptor = new HashMap<>();
+
+	private final ConcurrentMap<Description, Long> startTimes = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Long> runtimes = new ConcurrentHashMap<>();
+	
+	// null unless CPU times are recorded
+	private final ConcurrentMap<Description, Long> cpuStartTimes;
+	private final ConcurrentMap<String, Long> cpuTimes = new ConcurrentHashMap<>();
+	
+	private final ConcurrentMap<Description, Object> failedTests = new ConcurrentHashMap<>();
+	private final Queue<TestCaseDescriptor> passedDescriptors = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * @param testClass
+	 *            the test class whose methods are to be recorded
+	 * @param declaredDescriptors
+	 *            the test cases declared by the methods of the class
+	 * @param recordCpuTimes
+	 *            whether to record the CPU time of each method as well, if
+	 *            the platform supports it
+	 */
+	CoverageRecorder(Class<?> testClass, List<TestCaseDescriptor> declaredDescriptors,
+			boolean recordCpuTimes) {
+		this.className = testClass.getName();
+		this.cpuStartTimes = recordCpuTimes && THREADS.isCurrentThreadCpuTimeSupported()
+				&& THREADS.isThreadCpuTimeEnabled() ? new ConcurrentHashMap<Description, Long>() : null;
+		for (TestCaseDescriptor descriptor : declaredDescriptors) {
+			methodNameToDescriptor.put(descriptor.getTestMethodName(), descriptor);
+		}
+	}
+
+	@Override
+	public void testStarted(Description description) {
+		if (className.equals(description.getClassName())) {
+			startTimes.put(description, System.nanoTime());
+			if (null != cpuStartTimes) {
+				// the listener is notified by the thread running the method
+				cpuStartTimes.put(description, THREADS.getCurrentThreadCpuTime());
+			}
+		}
+	}
+
+	@Override
+	public void testFailure(Failure failure) {
+		failedTests.put(failure.getDescription(), FAILED);
+	}
+
+	@Override
+	public void testAssumptionFailure(Failure failure) {
+		failedTests.put(failure.getDescription(), FAILED);
+	}
+
+	@Override
+	public void testFinished(Description description) {
+		Long startTime = startTimes.remove(description);
+		if (null != startTime) {
+			runtimes.put(description.getMethodName(), System.nanoTime() - startTime);
+		}
+		Long cpuStartTime = null == cpuStartTimes ? null : cpuStartTimes.remove(description);
+		if (null != cpuStartTime) {
+			cpuTimes.put(description.getMethodName(), THREADS.getCurrentThreadCpuTime() - cpuStartTime);
+		}
+		
+		if (null != failedTests.remove(description) || !className.equals(description.getClassName())) {
+			return;
+		}
+		TestCaseDescriptor descriptor = methodNameToDescriptor.get(description.getMethodName());
+		if (null != descriptor) {
+			passedDescriptors.add(descriptor);
+		}
+	}
+
+	/**
+	 * Returns the test cases of the methods which have passed so far.
+	 */
+	List<TestCaseDescriptor> getCoveredTestCaseDescriptors() {
+		return new ArrayList<>(passedDescriptors);
+	}
+
+	/**
+	 * Returns the wall-clock runtime in nanoseconds of each method which has
+	 * finished so far, by name.
+	 */
+	Map<String, Long> getRuntimes() {
+		return new HashMap<>(runtimes);
+	}
+
+	/**
+	 * Returns the CPU time in nanoseconds of each method which has finished
+	 * so far, by name, or an empty map if CPU times are not recorded.
+	 */
+	Map<String, Long> getCpuTimes() {
+		return new HashMap<>(cpuTimes);
+	}
+
+}
@@ -0,0 +1,61 @@
+package org.swordess.test;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.swordess.test.model.CoverageRegistry;
+import org.swordess.test.model.CoverageShards;
+
+/**
+ * Checks the coverage recorded in the shards of a directory as a whole, once
+ * all the JVMs writing them have finished, so the tests of one analysis can be
+ * spread across several forks.
+ *
+ * @see CoverageShards
+ */
+public class CoverageShardMerger {
+
+	/**
+	 * @param shardDir
+	 *            the directory given by {@value CoverageShards#SHARD_DIR_PROPERTY}
+	 * @param run
+	 *            the run id given by {@value CoverageShards#SHARD_RUN_PROPERTY}
+	 * @throws UncoveredCasesException
+	 *             if any EC or boundary analysed by a class of any shard of the
+	 *             run is not covered by the tests of all the shards of the run
+	 * @throws IOException
+	 *             if a shard cannot be read
+	 */
+	public static void check(File shardDir, String run) throws UncoveredCasesException, IOException {
+		CoverageRegistry registry = new CoverageRegistry();
+		CoverageShards.readAll(shardDir, run, registry);
+
+		CoverageDiff.check(registry.getExpectedTestUnitsDescriptors(), registry.merge());
+	}
+
+	/**
+	 * Checks the shards of one run in a directory and exits with status 1 if
+	 * anything is left uncovered.
+	 *
+	 * @param args
+	 *            path of the shard directory and id of the run
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("usage: CoverageShardMerger <shard directory> <run id>");
+			System.exit(2);
+		}
+
+		try {
+			check(new File(args[0]), args[1]);
+		} catch (UncoveredCasesException e) {
+			System.out.println(e.getMessage());
+			System.exit(1);
+		}
+		System.exit(0);
+	}
+
+	private CoverageShardMerger() {
+	}
+
+}
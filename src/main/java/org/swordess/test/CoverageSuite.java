@@ -0,0 +1,118 @@
+package org.swordess.test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import org.junit.runner.RunWith;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Suite;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+import org.junit.runners.model.Statement;
+import org.junit.runners.model.TestClass;
+import org.swordess.test.model.CoverageRegistry;
+import org.swordess.test.model.CoverageShards;
+import org.swordess.test.model.TestCaseDescriptor;
+import org.swordess.test.model.TestClassDescriptor;
+
+/**
+ * Runs the classes listed in {@link Suite.SuiteClasses} and checks their
+ * coverage as a whole, so the tests of one analysis can be spread across
+ * several classes.
+ * <p>
+ * Each child class is run by a {@link CoverChecker} which registers its
+ * expected units and covered cases with the suite as soon as the class
+ * finishes, instead of checking them by itself. A {@link TestCaseAnalysis}
+ * may be put on any child class or on the suite class itself. Children
+ * annotated with a runner other than {@link CoverChecker} are run by that
+ * runner and do not contribute.
+ * <p>
+ * When coverage shards are enabled, the children and the suite append their
+ * coverage to the shard of this JVM instead, to be checked by
+ * {@link CoverageShardMerger}.
+ */
+public class CoverageSuite extends Suite {
+
+	private final CoverageRegistry registry;
+
+	public CoverageSuite(Class<?> klass, RunnerBuilder builder) throws InitializationError {
+		this(klass, builder, new CoverageRegistry());
+	}
+
+	private CoverageSuite(Class<?> klass, RunnerBuilder builder, CoverageRegistry registry)
+			throws InitializationError {
+		super(new CoverCheckerBuilder(builder, registry), klass, suiteClassesOf(klass));
+		this.registry = registry;
+	}
+
+	private static Class<?>[] suiteClassesOf(Class<?> klass) throws InitializationError {
+		SuiteClasses annotation = klass.getAnnotation(SuiteClasses.class);
+		if (null == annotation) {
+			throw new InitializationError(String.format(
+					"class '%s' must have a SuiteClasses annotation", klass.getName()));
+		}
+		return annotation.value();
+	}
+
+	@Override
+	protected Statement classBlock(RunNotifier notifier) {
+		final Statement statement = super.classBlock(notifier);
+		return new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				statement.evaluate();
+				checkExpectedCasesAndCoveredCases();
+			}
+		};
+	}
+
+	private void checkExpectedCasesAndCoveredCases() throws UncoveredCasesException {
+		TestClass suiteClass = getTestClass();
+		boolean analysed = suiteClass.getJavaClass().isAnnotationPresent(TestCaseAnalysis.class);
+		if (CoverageShards.isEnabled()) {
+			// the children have recorded their shards already
+			if (analysed) {
+				recordShard(TestClassDescriptor.load(suiteClass));
+			}
+			return;
+		}
+		if (analysed) {
+			registry.register(TestClassDescriptor.load(suiteClass));
+		}
+
+		CoverageDiff.check(registry.getExpectedTestUnitsDescriptors(), registry.merge());
+	}
+
+	private void recordShard(TestClassDescriptor suiteDescriptor) throws UncoveredCasesException {
+		String suiteName = getTestClass().getName();
+		try {
+			CoverageShards.record(suiteName, suiteDescriptor.getExpectedTestUnitsDescriptors(),
+					Collections.<TestCaseDescriptor>emptyList());
+		} catch (IOException e) {
+			throw new UncoveredCasesException("cannot record coverage shard of " + suiteName + ": " + e);
+		}
+	}
+
+	private static class CoverCheckerBuilder extends RunnerBuilder {
+
+		private final RunnerBuilder defaultBuilder;
+		private final CoverageRegistry registry;
+
+		CoverCheckerBuilder(RunnerBuilder defaultBuilder, CoverageRegistry registry) {
+			this.defaultBuilder = defaultBuilder;
+			this.registry = registry;
+		}
+
+		@Override
+		public Runner runnerForClass(Class<?> testClass) throws Throwable {
+			RunWith runWith = testClass.getAnnotation(RunWith.class);
+			if (null == runWith || CoverChecker.class == runWith.value()) {
+				return new CoverChecker(testClass, registry);
+			}
+			return defaultBuilder.runnerForClass(testClass);
+		}
+
+	}
+
+}
@@ -11,6 +11,7 @@ public @interface EquivalentCondition {
 	public Condition[] invalid() default {};
 	
 	public static @interface Condition {
+		/** Should not be negative. */
 		public int nbr();
 		public String desc();
 	}
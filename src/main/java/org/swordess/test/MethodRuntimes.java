@@ -0,0 +1,90 @@
+package org.swordess.test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.swordess.test.model.DescriptorCache;
+
+/**
+ * Wall-clock runtimes of the test methods of one class, as recorded by the
+ * last runs and kept in the cache directory.
+ * 
+ * @see DescriptorCache#dirFromSystemProperty()
+ */
+class MethodRuntimes {
+
+	private final File file;
+
+	private MethodRuntimes(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Returns the runtimes of the given class, or null if the cache directory
+	 * is disabled.
+	 */
+	static MethodRuntimes of(Class<?> testClass) {
+		File dir = DescriptorCache.dirFromSystemProperty();
+		return null == dir ? null : new MethodRuntimes(new File(dir, testClass.getName() + ".runtimes"));
+	}
+
+	/**
+	 * Returns the recorded runtime in nanoseconds of each method, by name.
+	 */
+	Map<String, Long> load() {
+		Map<String, Long> runtimes = new HashMap<>();
+		if (!file.isFile()) {
+			return runtimes;
+		}
+
+		Properties properties = new Properties();
+		try (InputStream in = new FileInputStream(file)) {
+			properties.load(in);
+		} catch (IOException e) {
+			return runtimes;
+		}
+		for (String methodName : properties.stringPropertyNames()) {
+			try {
+				runtimes.put(methodName, Long.valueOf(properties.getProperty(methodName)));
+			} catch (NumberFormatException e) {
+				// skip the corrupted entry
+			}
+		}
+		return runtimes;
+	}
+
+	/**
+	 * Records the given runtimes, keeping the ones of the methods which did
+	 * not run this time.
+	 */
+	void update(Map<String, Long> measured) {
+		if (measured.isEmpty()) {
+			return;
+		}
+
+		Map<String, Long> runtimes = load();
+		runtimes.putAll(measured);
+		Properties properties = new Properties();
+		for (Map.Entry<String, Long> entry : runtimes.entrySet()) {
+			properties.setProperty(entry.getKey(), entry.getValue().toString());
+		}
+
+		File dir = file.getParentFile();
+		if (null != dir && !(dir.isDirectory() || dir.mkdirs())) {
+			return;
+		}
+		try (OutputStream out = new FileOutputStream(file)) {
+			properties.store(out, null);
+		} catch (IOException e) {
+			// runtimes are only hints for the minimal mode
+		}
+	}
+
+}
@@ -0,0 +1,117 @@
+package org.swordess.test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.swordess.test.model.CoverageSet;
+import org.swordess.test.model.TestCaseDescriptor;
+import org.swordess.test.model.TestUnitDescriptor;
+
+/**
+ * Selects a small set of test methods which still covers everything the
+ * analysis expects, using the greedy algorithm for weighted set cover: it
+ * repeatedly picks the method with the lowest cost for each newly covered EC
+ * or boundary.
+ * <p>
+ * The cost of a method is its recorded runtime. Methods without a recorded
+ * runtime cost the mean of the recorded ones, or all methods cost the same
+ * if nothing is recorded.
+ */
+class MinimalCoverSelector {
+
+	/**
+	 * @param expectedUnits
+	 *            the analysis of the class
+	 * @param declaredCases
+	 *            the test cases declared by the methods of the class
+	 * @param runtimes
+	 *            recorded runtimes of the methods by name, can be empty
+	 * @return names of the selected methods
+	 */
+	static Set<String> select(List<TestUnitDescriptor> expectedUnits,
+			List<TestCaseDescriptor> declaredCases, Map<String, Long> runtimes) {
+		Map<String, Remaining> signatureToRemaining = new HashMap<>();
+		for (TestUnitDescriptor unit : expectedUnits) {
+			Remaining remaining = signatureToRemaining.get(unit.getMethodSignature());
+			signatureToRemaining.put(unit.getMethodSignature(), null == remaining
+					? new Remaining(unit.getValidECs(), unit.getInvalidECs(), unit.getBoundaries())
+					: remaining.plus(unit));
+		}
+
+		double defaultCost = meanOf(runtimes.values());
+		List<TestCaseDescriptor> candidates = new ArrayList<>(declaredCases);
+		Set<String> selected = new HashSet<>();
+		while (true) {
+			TestCaseDescriptor best = null;
+			double bestCost = Double.MAX_VALUE;
+			for (TestCaseDescriptor candidate : candidates) {
+				Remaining remaining = signatureToRemaining.get(candidate.getMethodSignature());
+				int gain = null == remaining ? 0 : remaining.gainOf(candidate);
+				if (gain == 0) {
+					continue;
+				}
+				Long runtime = runtimes.get(candidate.getTestMethodName());
+				double cost = (null == runtime ? defaultCost : Math.max(1, runtime)) / gain;
+				if (cost < bestCost) {
+					best = candidate;
+					bestCost = cost;
+				}
+			}
+			if (null == best) {
+				return selected;
+			}
+
+			candidates.remove(best);
+			selected.add(best.getTestMethodName());
+			Remaining remaining = signatureToRemaining.get(best.getMethodSignature());
+			signatureToRemaining.put(best.getMethodSignature(), remaining.minus(best));
+		}
+	}
+
+	private static double meanOf(Iterable<Long> values) {
+		long sum = 0;
+		int count = 0;
+		for (Long value : values) {
+			sum += value;
+			count++;
+		}
+		return count == 0 ? 1 : Math.max(1, (double) sum / count);
+	}
+
+	private static class Remaining {
+
+		final CoverageSet validECs;
+		final CoverageSet invalidECs;
+		final CoverageSet boundaries;
+
+		Remaining(CoverageSet validECs, CoverageSet invalidECs, CoverageSet boundaries) {
+			this.validECs = validECs;
+			this.invalidECs = invalidECs;
+			this.boundaries = boundaries;
+		}
+
+		int gainOf(TestCaseDescriptor candidate) {
+			return validECs.intersectionSize(candidate.getValidECs())
+					+ invalidECs.intersectionSize(candidate.getInvalidECs())
+					+ boundaries.intersectionSize(candidate.getBoundaries());
+		}
+
+		Remaining plus(TestUnitDescriptor unit) {
+			return new Remaining(validECs.union(unit.getValidECs()),
+					invalidECs.union(unit.getInvalidECs()),
+					boundaries.union(unit.getBoundaries()));
+		}
+
+		Remaining minus(TestCaseDescriptor covered) {
+			return new Remaining(validECs.difference(covered.getValidECs()),
+					invalidECs.difference(covered.getInvalidECs()),
+					boundaries.difference(covered.getBoundaries()));
+		}
+
+	}
+
+}
@@ -0,0 +1,23 @@
+package org.swordess.test;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Makes {@link CoverChecker} run the test methods of the annotated class
+ * concurrently. The coverage is still checked only after every method has
+ * finished.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Parallel {
+	
+	/**
+	 * Maximum number of test methods running at the same time. A value less
+	 * than 1 means the number of available processors.
+	 */
+	public int threads() default 0;
+	
+}
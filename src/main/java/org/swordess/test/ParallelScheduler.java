@@ -0,0 +1,100 @@
+package org.swordess.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.runners.model.RunnerScheduler;
+
+/**
+ * Runs the children of a runner on a bounded pool of threads.
+ * {@link #finished()} blocks until every scheduled child has completed.
+ */
+class ParallelScheduler implements RunnerScheduler {
+
+	private final String name;
+	private final int threads;
+	
+	private ExecutorService executor;
+	private final List<Future<?>> scheduled = new ArrayList<>();
+	
+	ParallelScheduler(String name, int threads) {
+		this.name = name;
+		this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+	}
+	
+	@Override
+	public void schedule(Runnable childStatement) {
+		if (null == executor) {
+			executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory(name));
+		}
+		scheduled.add(executor.submit(childStatement));
+	}
+
+	/**
+	 * Waits for every scheduled child, even if interrupted, so the class is
+	 * never reported finished while a child is still running. The interrupt
+	 * status is restored afterwards.
+	 * 
+	 * @throws IllegalStateException
+	 *             if a child threw, once all of them have completed
+	 */
+	@Override
+	public void finished() {
+		boolean interrupted = false;
+		Throwable failure = null;
+		try {
+			for (Future<?> future : scheduled) {
+				while (true) {
+					try {
+						future.get();
+						break;
+					} catch (InterruptedException e) {
+						interrupted = true;
+					} catch (ExecutionException e) {
+						if (null == failure) {
+							failure = e.getCause();
+						}
+						break;
+					}
+				}
+			}
+		} finally {
+			scheduled.clear();
+			if (null != executor) {
+				executor.shutdown();
+				executor = null;
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (null != failure) {
+			throw new IllegalStateException("child of " + name + " did not complete", failure);
+		}
+	}
+	
+	private static class NamedThreadFactory implements ThreadFactory {
+		
+		private final String prefix;
+		private final AtomicInteger counter = new AtomicInteger();
+		
+		NamedThreadFactory(String name) {
+			this.prefix = name + "-";
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,114 @@
+package org.swordess.test.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.swordess.test.Builder;
+import org.swordess.test.model.CoverageSet.CoverageSetBuilder;
+import org.swordess.test.model.TestUnitDescriptor.TestUnitDescriptorBuilder;
+
+/**
+ * Covered test units keyed by method signature. Each signature is mapped to
+ * the union of everything covered for it, so a lookup is a single hash probe.
+ */
+public class CoverageIndex {
+
+	private final Map<String, TestUnitDescriptor> signatureToUnit;
+	
+	private CoverageIndex(Map<String, TestUnitDescriptor> signatureToUnit) {
+		this.signatureToUnit = signatureToUnit;
+	}
+	
+	/**
+	 * Returns the merged coverage of the given signature, or null if nothing
+	 * is covered for it.
+	 * 
+	 * @param signature
+	 *            the method signature, should not be null
+	 * @throws IllegalArgumentException
+	 *             if signature is null
+	 */
+	public TestUnitDescriptor get(String signature) {
+		if (null == signature) {
+			throw new IllegalArgumentException("signature should not be null");
+		}
+		return signatureToUnit.get(signature);
+	}
+	
+	public int size() {
+		return signatureToUnit.size();
+	}
+	
+	public List<TestUnitDescriptor> getTestUnitDescriptors() {
+		return new ArrayList<>(signatureToUnit.values());
+	}
+	
+	public static class CoverageIndexBuilder implements Builder<CoverageIndex> {
+		
+		private final Map<String, UnitAccumulator> signatureToAccumulator = new HashMap<>();
+		
+		public CoverageIndexBuilder add(TestCaseDescriptor caseDescriptor) {
+			accumulatorOf(caseDescriptor.getMethodSignature()).add(
+					caseDescriptor.getValidECs(), caseDescriptor.getInvalidECs(),
+					caseDescriptor.getBoundaries());
+			return this;
+		}
+		
+		public CoverageIndexBuilder add(TestUnitDescriptor unitDescriptor) {
+			accumulatorOf(unitDescriptor.getMethodSignature()).add(
+					unitDescriptor.getValidECs(), unitDescriptor.getInvalidECs(),
+					unitDescriptor.getBoundaries());
+			return this;
+		}
+		
+		public CoverageIndexBuilder addAll(Collection<TestCaseDescriptor> caseDescriptors) {
+			for (TestCaseDescriptor caseDescriptor : caseDescriptors) {
+				add(caseDescriptor);
+			}
+			return this;
+		}
+		
+		private UnitAccumulator accumulatorOf(String signature) {
+			UnitAccumulator accumulator = signatureToAccumulator.get(signature);
+			if (null == accumulator) {
+				accumulator = new UnitAccumulator();
+				signatureToAccumulator.put(signature, accumulator);
+			}
+			return accumulator;
+		}
+
+		@Override
+		public CoverageIndex build() {
+			Map<String, TestUnitDescriptor> signatureToUnit = new HashMap<>(
+					Math.max(16, (int) (signatureToAccumulator.size() / .75f) + 1));
+			for (Map.Entry<String, UnitAccumulator> entry : signatureToAccumulator.entrySet()) {
+				UnitAccumulator accumulator = entry.getValue();
+				TestUnitDescriptorBuilder builder = new TestUnitDescriptorBuilder(entry.getKey());
+				builder.validECs(accumulator.validECs.build())
+						.invalidECs(accumulator.invalidECs.build())
+						.boundaries(accumulator.boundaries.build());
+				signatureToUnit.put(entry.getKey(), builder.build());
+			}
+			return new CoverageIndex(signatureToUnit);
+		}
+		
+	}
+	
+	private static class UnitAccumulator {
+		
+		final CoverageSetBuilder validECs = new CoverageSetBuilder();
+		final CoverageSetBuilder invalidECs = new CoverageSetBuilder();
+		final CoverageSetBuilder boundaries = new CoverageSetBuilder();
+		
+		void add(CoverageSet valid, CoverageSet invalid, CoverageSet boundary) {
+			validECs.addAll(valid);
+			invalidECs.addAll(invalid);
+			boundaries.addAll(boundary);
+		}
+		
+	}
+	
+}
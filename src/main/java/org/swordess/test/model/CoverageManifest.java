@@ -0,0 +1,231 @@
+package org.swordess.test.model;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.swordess.test.model.TestCaseDescriptor.TestCaseDescriptorBuilder;
+import org.swordess.test.model.TestUnitDescriptor.TestUnitDescriptorBuilder;
+
+/**
+ * The expected test units and covered test cases of one test class, in a
+ * compact binary form.
+ * <p>
+ * Manifests are generated at compile time by
+ * {@link org.swordess.test.processor.CoverageManifestProcessor} and stored
+ * in the class output under {@link #RESOURCE_DIR}, which lets the runner
+ * skip reflecting over the annotations of the test class. Each one is
+ * stored with the hash of the class files it was generated with, so a
+ * manifest left behind by a compiler which did not run the processor is
+ * detected as stale and ignored.
+ */
+public class CoverageManifest {
+
+	public static final String RESOURCE_DIR = "META-INF/swordess-test/";
+
+	/**
+	 * The algorithm hashing the class files of a test class.
+	 * 
+	 * @see #classHashOf(Class)
+	 */
+	public static final String HASH_ALGORITHM = "SHA-1";
+
+	private static final int MAGIC = 0x53574354;
+	private static final int VERSION = 1;
+
+	// a corrupt count must not allocate more than this up front
+	private static final int MAX_INITIAL_CAPACITY = 1024;
+
+	private final List<TestUnitDescriptor> expectedDescriptors;
+	private final List<TestCaseDescriptor> coveredDescriptors;
+
+	public CoverageManifest(List<TestUnitDescriptor> expectedDescriptors,
+			List<TestCaseDescriptor> coveredDescriptors) {
+		this.expectedDescriptors = expectedDescriptors;
+		this.coveredDescriptors = coveredDescriptors;
+	}
+
+	/**
+	 * Returns the resource name of the manifest of the given class.
+	 *
+	 * @param binaryClassName
+	 *            the binary name of the class, as returned by
+	 *            {@link Class#getName()}
+	 */
+	public static String resourceName(String binaryClassName) {
+		return RESOURCE_DIR + binaryClassName + ".manifest";
+	}
+
+	/**
+	 * Loads the manifest generated for the given class.
+	 *
+	 * @return the manifest, or null if there is no manifest for the class, it
+	 *         cannot be read or it is stale
+	 */
+	public static CoverageManifest load(Class<?> clazz) {
+		ClassLoader loader = clazz.getClassLoader();
+		if (null == loader) {
+			return null;
+		}
+
+		InputStream in = loader.getResourceAsStream(resourceName(clazz.getName()));
+		if (null == in) {
+			return null;
+		}
+		try (DataInputStream dataIn = new DataInputStream(new BufferedInputStream(in))) {
+			byte[] hash = classHashOf(clazz);
+			return null == hash ? null : readFrom(dataIn, hash);
+		} catch (IOException | RuntimeException e) {
+			// a corrupt manifest is as good as none
+			return null;
+		}
+	}
+
+	/**
+	 * Hashes the class files of the given class and its super classes, up to
+	 * the first one which is not loaded from a class file, e.g.
+	 * <code>Object</code>.
+	 *
+	 * @return the hash, or null if the class file of the given class cannot
+	 *         be read
+	 */
+	public static byte[] classHashOf(Class<?> clazz) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+
+		byte[] buf = new byte[8192];
+		for (Class<?> c = clazz; null != c && null != c.getClassLoader(); c = c.getSuperclass()) {
+			String resource = c.getName().replace('.', '/') + ".class";
+			try (InputStream in = c.getClassLoader().getResourceAsStream(resource)) {
+				if (null == in) {
+					if (c == clazz) {
+						return null;
+					}
+					break;
+				}
+				int bytesRead;
+				while (-1 != (bytesRead = in.read(buf))) {
+					digest.update(buf, 0, bytesRead);
+				}
+			} catch (IOException e) {
+				return null;
+			}
+		}
+		return digest.digest();
+	}
+
+	/**
+	 * Writes this manifest preceded by the hash of the class files it
+	 * describes.
+	 * 
+	 * @see #readFrom(DataInput, byte[])
+	 */
+	public void writeTo(DataOutput out, byte[] classHash) throws IOException {
+		out.writeByte(classHash.length);
+		out.write(classHash);
+		writeTo(out);
+	}
+
+	/**
+	 * Reads a manifest previously written by
+	 * {@link #writeTo(DataOutput, byte[])}.
+	 * 
+	 * @return the manifest, or null if it was written for class files other
+	 *         than the ones with the given hash
+	 * @throws IOException
+	 *             if the input is not a manifest of the supported version
+	 */
+	public static CoverageManifest readFrom(DataInput in, byte[] classHash) throws IOException {
+		byte[] writtenHash = new byte[in.readUnsignedByte()];
+		in.readFully(writtenHash);
+		return Arrays.equals(classHash, writtenHash) ? readFrom(in) : null;
+	}
+
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+
+		out.writeInt(expectedDescriptors.size());
+		for (TestUnitDescriptor unit : expectedDescriptors) {
+			out.writeUTF(unit.getMethodSignature());
+			unit.getValidECs().writeTo(out);
+			unit.getInvalidECs().writeTo(out);
+			unit.getBoundaries().writeTo(out);
+		}
+
+		out.writeInt(coveredDescriptors.size());
+		for (TestCaseDescriptor testCase : coveredDescriptors) {
+			out.writeUTF(testCase.getTestMethodName());
+			out.writeUTF(testCase.getMethodSignature());
+			testCase.getValidECs().writeTo(out);
+			testCase.getInvalidECs().writeTo(out);
+			testCase.getBoundaries().writeTo(out);
+		}
+	}
+
+	/**
+	 * @throws IOException
+	 *             if the input is not a manifest of the supported version, or
+	 *             is truncated or corrupt
+	 */
+	public static CoverageManifest readFrom(DataInput in) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("not a coverage manifest");
+		}
+		int version = in.readShort();
+		if (version != VERSION) {
+			throw new IOException("unsupported manifest version " + version);
+		}
+
+		int expectedCount = readCount(in);
+		List<TestUnitDescriptor> expectedDescriptors = new ArrayList<>(Math.min(expectedCount, MAX_INITIAL_CAPACITY));
+		for (int i = 0; i < expectedCount; i++) {
+			TestUnitDescriptorBuilder builder = new TestUnitDescriptorBuilder(in.readUTF());
+			builder.validECs(CoverageSet.readFrom(in))
+					.invalidECs(CoverageSet.readFrom(in))
+					.boundaries(CoverageSet.readFrom(in));
+			expectedDescriptors.add(builder.build());
+		}
+
+		int coveredCount = readCount(in);
+		List<TestCaseDescriptor> coveredDescriptors = new ArrayList<>(Math.min(coveredCount, MAX_INITIAL_CAPACITY));
+		for (int i = 0; i < coveredCount; i++) {
+			TestCaseDescriptorBuilder builder = new TestCaseDescriptorBuilder(in.readUTF(), in.readUTF());
+			builder.validECs(CoverageSet.readFrom(in))
+					.invalidECs(CoverageSet.readFrom(in))
+					.boundaries(CoverageSet.readFrom(in));
+			coveredDescriptors.add(builder.build());
+		}
+
+		return new CoverageManifest(expectedDescriptors, coveredDescriptors);
+	}
+
+	private static int readCount(DataInput in) throws IOException {
+		int count = in.readInt();
+		if (count < 0) {
+			throw new IOException("negative descriptor count: " + count);
+		}
+		return count;
+	}
+
+	public List<TestUnitDescriptor> getExpectedTestUnitsDescriptors() {
+		return expectedDescriptors;
+	}
+
+	public List<TestCaseDescriptor> getCoveredTestCaseDescriptors() {
+		return coveredDescriptors;
+	}
+
+}
@@ -0,0 +1,196 @@
+package org.swordess.test.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.swordess.test.model.CoverageIndex.CoverageIndexBuilder;
+import org.swordess.test.model.CoverageSet.CoverageSetBuilder;
+import org.swordess.test.model.TestUnitDescriptor.TestUnitDescriptorBuilder;
+
+/**
+ * Collects the expected test units and covered test cases of several test
+ * classes. Classes may register concurrently and at any time, and the
+ * covered cases are merged per signature only when {@link #merge()} is
+ * called.
+ */
+public class CoverageRegistry {
+
+	// registries with fewer covered test cases are merged on the calling thread
+	private static final int PARALLEL_THRESHOLD = 4096;
+
+	private final Queue<TestUnitDescriptor> expectedDescriptors = new ConcurrentLinkedQueue<>();
+
+	private final ConcurrentMap<String, Queue<TestCaseDescriptor>> signatureToCoveredDescriptors = new ConcurrentHashMap<>();
+
+	public void register(TestClassDescriptor classDescriptor) {
+		register(classDescriptor.getExpectedTestUnitsDescriptors(),
+				classDescriptor.getCoveredTestCaseDescriptors());
+	}
+	
+	public void register(Collection<TestUnitDescriptor> expectedUnits,
+			Collection<TestCaseDescriptor> coveredCases) {
+		expectedDescriptors.addAll(expectedUnits);
+		for (TestCaseDescriptor caseDescriptor : coveredCases) {
+			coveredDescriptorsOf(caseDescriptor.getMethodSignature()).add(caseDescriptor);
+		}
+	}
+
+	private Queue<TestCaseDescriptor> coveredDescriptorsOf(String signature) {
+		Queue<TestCaseDescriptor> descriptors = signatureToCoveredDescriptors.get(signature);
+		if (null == descriptors) {
+			Queue<TestCaseDescriptor> newDescriptors = new ConcurrentLinkedQueue<>();
+			descriptors = signatureToCoveredDescriptors.putIfAbsent(signature, newDescriptors);
+			if (null == descriptors) {
+				descriptors = newDescriptors;
+			}
+		}
+		return descriptors;
+	}
+
+	/**
+	 * Returns the expected test units registered so far, merging the units of
+	 * a signature analysed by more than one class.
+	 */
+	public List<TestUnitDescriptor> getExpectedTestUnitsDescriptors() {
+		CoverageIndexBuilder builder = new CoverageIndexBuilder();
+		for (TestUnitDescriptor unitDescriptor : expectedDescriptors) {
+			builder.add(unitDescriptor);
+		}
+		return builder.build().getTestUnitDescriptors();
+	}
+
+	/**
+	 * Merges the covered test cases registered so far, on the calling thread
+	 * if there are only a few of them, or else on a pool shared by all
+	 * registries.
+	 */
+	public CoverageIndex merge() {
+		List<MergeTask> tasks = mergeTasks();
+		int descriptorCount = 0;
+		for (MergeTask task : tasks) {
+			descriptorCount += task.to;
+		}
+		if (descriptorCount >= PARALLEL_THRESHOLD) {
+			return merge(SharedPool.POOL, tasks);
+		}
+
+		CoverageIndexBuilder builder = new CoverageIndexBuilder();
+		for (MergeTask task : tasks) {
+			builder.add(task.mergeSequentially());
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Merges the covered test cases registered so far, one fork/join reduction
+	 * for each signature.
+	 */
+	public CoverageIndex merge(ForkJoinPool pool) {
+		return merge(pool, mergeTasks());
+	}
+
+	private CoverageIndex merge(ForkJoinPool pool, List<MergeTask> tasks) {
+		CoverageIndexBuilder builder = new CoverageIndexBuilder();
+		for (TestUnitDescriptor unitDescriptor : pool.invoke(new MergeAllTask(tasks))) {
+			builder.add(unitDescriptor);
+		}
+		return builder.build();
+	}
+
+	private List<MergeTask> mergeTasks() {
+		List<MergeTask> tasks = new ArrayList<>();
+		for (Map.Entry<String, Queue<TestCaseDescriptor>> entry : signatureToCoveredDescriptors.entrySet()) {
+			TestCaseDescriptor[] descriptors = entry.getValue().toArray(new TestCaseDescriptor[0]);
+			tasks.add(new MergeTask(entry.getKey(), descriptors, 0, descriptors.length));
+		}
+		return tasks;
+	}
+
+	private static class SharedPool {
+		// the workers are daemon threads, so the pool is never shut down
+		static final ForkJoinPool POOL = new ForkJoinPool();
+	}
+
+	@SuppressWarnings("serial")
+	private static class MergeAllTask extends RecursiveTask<List<TestUnitDescriptor>> {
+
+		private final List<MergeTask> tasks;
+
+		MergeAllTask(List<MergeTask> tasks) {
+			this.tasks = tasks;
+		}
+
+		@Override
+		protected List<TestUnitDescriptor> compute() {
+			List<TestUnitDescriptor> merged = new ArrayList<>(tasks.size());
+			for (MergeTask task : invokeAll(tasks)) {
+				merged.add(task.join());
+			}
+			return merged;
+		}
+
+	}
+
+	@SuppressWarnings("serial")
+	private static class MergeTask extends RecursiveTask<TestUnitDescriptor> {
+
+		private static final int THRESHOLD = 256;
+
+		private final String signature;
+		private final TestCaseDescriptor[] descriptors;
+		private final int from;
+		private final int to;
+
+		MergeTask(String signature, TestCaseDescriptor[] descriptors, int from, int to) {
+			this.signature = signature;
+			this.descriptors = descriptors;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected TestUnitDescriptor compute() {
+			if (to - from <= THRESHOLD) {
+				return mergeSequentially();
+			}
+
+			int middle = (from + to) >>> 1;
+			MergeTask left = new MergeTask(signature, descriptors, from, middle);
+			MergeTask right = new MergeTask(signature, descriptors, middle, to);
+			left.fork();
+			TestUnitDescriptor rightUnit = right.compute();
+			TestUnitDescriptor leftUnit = left.join();
+
+			TestUnitDescriptorBuilder builder = new TestUnitDescriptorBuilder(signature);
+			builder.validECs(leftUnit.getValidECs().union(rightUnit.getValidECs()))
+					.invalidECs(leftUnit.getInvalidECs().union(rightUnit.getInvalidECs()))
+					.boundaries(leftUnit.getBoundaries().union(rightUnit.getBoundaries()));
+			return builder.build();
+		}
+
+		private TestUnitDescriptor mergeSequentially() {
+			CoverageSetBuilder validECs = new CoverageSetBuilder();
+			CoverageSetBuilder invalidECs = new CoverageSetBuilder();
+			CoverageSetBuilder boundaries = new CoverageSetBuilder();
+			for (int i = from; i < to; i++) {
+				validECs.addAll(descriptors[i].getValidECs());
+				invalidECs.addAll(descriptors[i].getInvalidECs());
+				boundaries.addAll(descriptors[i].getBoundaries());
+			}
+
+			TestUnitDescriptorBuilder builder = new TestUnitDescriptorBuilder(signature);
+			builder.validECs(validECs.build()).invalidECs(invalidECs.build()).boundaries(boundaries.build());
+			return builder.build();
+		}
+
+	}
+
+}
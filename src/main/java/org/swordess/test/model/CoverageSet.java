@@ -0,0 +1,337 @@
+package org.swordess.test.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.swordess.test.Builder;
+
+/**
+ * An immutable set of condition numbers (equivalent condition numbers or
+ * boundary numbers) backed by a compact bitset.
+ * <p>
+ * Set operations such as {@link #union(CoverageSet)} and
+ * {@link #difference(CoverageSet)} work on whole 64-bit words and allocate
+ * only the resulting word array.
+ * <p>
+ * Unlike the lists of numbers used before, a set cannot hold negative
+ * numbers, so declaring a negative EC number or boundary number is rejected
+ * with an {@link IllegalArgumentException} when the class is described.
+ */
+public final class CoverageSet {
+
+	public static final CoverageSet EMPTY = new CoverageSet(new long[0]);
+
+	private static final int ADDRESS_BITS_PER_WORD = 6;
+
+	// enough for every non-negative int
+	private static final int MAX_WORDS = (Integer.MAX_VALUE >> ADDRESS_BITS_PER_WORD) + 1;
+
+	private static final int INITIAL_READ_WORDS = 64;
+
+	private final long[] words;
+
+	private CoverageSet(long[] words) {
+		this.words = words;
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if any of the numbers is negative
+	 */
+	public static CoverageSet of(int... nbrs) {
+		CoverageSetBuilder builder = new CoverageSetBuilder();
+		if (null != nbrs) {
+			for (int nbr : nbrs) {
+				builder.add(nbr);
+			}
+		}
+		return builder.build();
+	}
+
+	public boolean contains(int nbr) {
+		if (nbr < 0) {
+			return false;
+		}
+		int wordIndex = wordIndex(nbr);
+		return wordIndex < words.length && (words[wordIndex] & (1L << nbr)) != 0;
+	}
+
+	public boolean isEmpty() {
+		for (long word : words) {
+			if (word != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int size() {
+		int size = 0;
+		for (long word : words) {
+			size += Long.bitCount(word);
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the number of elements contained in both this set and
+	 * <code>other</code>, without allocating.
+	 * 
+	 * @param other
+	 *            the set to be intersected, should not be null
+	 */
+	public int intersectionSize(CoverageSet other) {
+		int length = Math.min(words.length, other.words.length);
+		int size = 0;
+		for (int i = 0; i < length; i++) {
+			size += Long.bitCount(words[i] & other.words[i]);
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the elements of this set which are not contained in
+	 * <code>other</code>.
+	 *
+	 * @param other
+	 *            the set to be subtracted, should not be null
+	 */
+	public CoverageSet difference(CoverageSet other) {
+		int length = words.length;
+		while (length > 0 && (words[length - 1] & ~other.wordAt(length - 1)) == 0) {
+			length--;
+		}
+		if (length == 0) {
+			return EMPTY;
+		}
+
+		long[] result = new long[length];
+		for (int i = 0; i < length; i++) {
+			result[i] = words[i] & ~other.wordAt(i);
+		}
+		return new CoverageSet(result);
+	}
+
+	/**
+	 * Returns the elements contained in either this set or <code>other</code>.
+	 *
+	 * @param other
+	 *            the set to be merged, should not be null
+	 */
+	public CoverageSet union(CoverageSet other) {
+		if (other.words.length > words.length) {
+			return other.union(this);
+		}
+		if (other.isEmpty()) {
+			return this;
+		}
+		long[] result = words.clone();
+		for (int i = 0; i < other.words.length; i++) {
+			result[i] |= other.words[i];
+		}
+		return new CoverageSet(result);
+	}
+
+	/**
+	 * Returns the elements of this set in ascending order.
+	 */
+	public int[] toArray() {
+		int[] nbrs = new int[size()];
+		int i = 0;
+		for (int nbr = nextSetBit(0); nbr >= 0; nbr = nextSetBit(nbr + 1)) {
+			nbrs[i++] = nbr;
+		}
+		return nbrs;
+	}
+
+	/**
+	 * Returns the smallest element which is greater than or equal to
+	 * <code>from</code>, or -1 if there is no such element.
+	 */
+	public int nextSetBit(int from) {
+		if (from < 0) {
+			from = 0;
+		}
+		int wordIndex = wordIndex(from);
+		if (wordIndex >= words.length) {
+			return -1;
+		}
+
+		long word = words[wordIndex] & (-1L << from);
+		while (true) {
+			if (word != 0) {
+				return (wordIndex << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+			}
+			if (++wordIndex == words.length) {
+				return -1;
+			}
+			word = words[wordIndex];
+		}
+	}
+
+	/**
+	 * Writes this set as its word count followed by the words.
+	 * 
+	 * @see #readFrom(DataInput)
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(words.length);
+		for (long word : words) {
+			out.writeLong(word);
+		}
+	}
+
+	/**
+	 * Reads a set previously written by {@link #writeTo(DataOutput)}.
+	 * 
+	 * @throws IOException
+	 *             if the input is truncated or the word count is invalid
+	 */
+	public static CoverageSet readFrom(DataInput in) throws IOException {
+		int length = readWordCount(in.readInt(), MAX_WORDS);
+		if (length == 0) {
+			return EMPTY;
+		}
+		// grown while reading, so a corrupt count runs into the end of the input first
+		long[] words = new long[Math.min(length, INITIAL_READ_WORDS)];
+		for (int i = 0; i < length; i++) {
+			if (i == words.length) {
+				words = Arrays.copyOf(words, Math.min(length, 2 * words.length));
+			}
+			words[i] = in.readLong();
+		}
+		return new CoverageSet(words);
+	}
+
+	/**
+	 * Reads a set previously written by {@link #writeTo(DataOutput)} from the
+	 * current position of the given buffer, which must be big-endian.
+	 * 
+	 * @throws IOException
+	 *             if the buffer is truncated or the word count is invalid
+	 */
+	public static CoverageSet readFrom(ByteBuffer buffer) throws IOException {
+		try {
+			int length = readWordCount(buffer.getInt(), buffer.remaining() / 8);
+			if (length == 0) {
+				return EMPTY;
+			}
+			long[] words = new long[length];
+			buffer.asLongBuffer().get(words);
+			// through Buffer, as ByteBuffer only overrides position(int) since Java 9
+			((Buffer) buffer).position(buffer.position() + length * 8);
+			return new CoverageSet(words);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("truncated coverage set", e);
+		}
+	}
+
+	private static int readWordCount(int length, int maxLength) throws IOException {
+		if (length < 0 || length > maxLength) {
+			throw new IOException("invalid word count: " + length);
+		}
+		return length;
+	}
+
+	private long wordAt(int wordIndex) {
+		return wordIndex < words.length ? words[wordIndex] : 0L;
+	}
+
+	private static int wordIndex(int nbr) {
+		return nbr >> ADDRESS_BITS_PER_WORD;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CoverageSet)) {
+			return false;
+		}
+		CoverageSet other = (CoverageSet) obj;
+		int length = Math.max(words.length, other.words.length);
+		for (int i = 0; i < length; i++) {
+			if (wordAt(i) != other.wordAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		long h = 1234;
+		for (int i = words.length; --i >= 0;) {
+			h ^= words[i] * (i + 1);
+		}
+		return (int) ((h >> 32) ^ h);
+	}
+
+	/**
+	 * Returns the elements in the same form as {@link java.util.List#toString()}
+	 * , e.g. <code>[1, 3, 5]</code>.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int nbr = nextSetBit(0); nbr >= 0; nbr = nextSetBit(nbr + 1)) {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(nbr);
+		}
+		return sb.append(']').toString();
+	}
+
+	public static class CoverageSetBuilder implements Builder<CoverageSet> {
+
+		private long[] words = new long[1];
+
+		/**
+		 * @param nbr
+		 *            the condition number, should not be negative
+		 * @throws IllegalArgumentException
+		 *             if nbr is negative
+		 */
+		public CoverageSetBuilder add(int nbr) {
+			if (nbr < 0) {
+				throw new IllegalArgumentException("condition number should not be negative: " + nbr);
+			}
+			int wordIndex = wordIndex(nbr);
+			ensureCapacity(wordIndex + 1);
+			words[wordIndex] |= 1L << nbr;
+			return this;
+		}
+
+		public CoverageSetBuilder addAll(CoverageSet set) {
+			ensureCapacity(set.words.length);
+			for (int i = 0; i < set.words.length; i++) {
+				words[i] |= set.words[i];
+			}
+			return this;
+		}
+
+		private void ensureCapacity(int wordsRequired) {
+			if (words.length < wordsRequired) {
+				words = Arrays.copyOf(words, Math.max(2 * words.length, wordsRequired));
+			}
+		}
+
+		@Override
+		public CoverageSet build() {
+			int length = words.length;
+			while (length > 0 && words[length - 1] == 0) {
+				length--;
+			}
+			return length == 0 ? EMPTY : new CoverageSet(Arrays.copyOf(words, length));
+		}
+
+	}
+
+}
@@ -0,0 +1,195 @@
+package org.swordess.test.model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Shards of the coverage of test classes run in several JVMs, e.g. the
+ * forks of one Surefire run, to be merged and checked once all of them have
+ * finished.
+ * <p>
+ * Sharding is enabled by setting the {@value #SHARD_DIR_PROPERTY} system
+ * property to a directory shared by the JVMs, and the
+ * {@value #SHARD_RUN_PROPERTY} system property to an id of the run shared by
+ * them as well, e.g. a build timestamp. Each JVM appends to a file of its own
+ * in the subdirectory of the run, one record for each test class, and each
+ * record is written by a single write under an exclusive file lock, so a
+ * reader never sees a record half written by a live JVM. A record cut short by
+ * a JVM which died while writing it is the last one of its file and is
+ * skipped.
+ * <p>
+ * Only the shards of the given run are merged, so shards left by earlier runs
+ * are never checked again. The directory is not cleared, so it should be
+ * placed under the build output, e.g. <tt>target/swordess-test-shards</tt>.
+ */
+public class CoverageShards {
+
+	public static final String SHARD_DIR_PROPERTY = "swordess.test.shardDir";
+
+	public static final String SHARD_RUN_PROPERTY = "swordess.test.shardRun";
+
+	public static final String SHARD_SUFFIX = ".shard";
+
+	private static File shardFile;
+
+	// the run directory of shardFile
+	private static File shardRunDir;
+
+	/**
+	 * Returns whether sharding is enabled in this JVM.
+	 */
+	public static boolean isEnabled() {
+		return null != dirFromSystemProperty();
+	}
+
+	private static File dirFromSystemProperty() {
+		String dir = System.getProperty(SHARD_DIR_PROPERTY);
+		return null == dir || dir.trim().isEmpty() ? null : new File(dir);
+	}
+
+	/**
+	 * Appends the coverage of one test class to the shard of this JVM.
+	 *
+	 * @throws IOException
+	 *             if sharding is disabled, the run id is not set or the shard
+	 *             cannot be written
+	 */
+	public static synchronized void record(String className, List<TestUnitDescriptor> expected,
+			List<TestCaseDescriptor> covered) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0); // length, filled in below
+		out.writeUTF(className);
+		new CoverageManifest(expected, covered).writeTo(out);
+		out.flush();
+
+		ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+		record.putInt(0, record.remaining() - 4);
+
+		try (FileChannel channel = FileChannel.open(shardFile().toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			FileLock lock = channel.lock();
+			try {
+				while (record.hasRemaining()) {
+					channel.write(record);
+				}
+			} finally {
+				lock.release();
+			}
+		}
+	}
+
+	private static File shardFile() throws IOException {
+		File dir = dirFromSystemProperty();
+		if (null == dir) {
+			throw new IOException("property " + SHARD_DIR_PROPERTY + " is not set");
+		}
+		String run = System.getProperty(SHARD_RUN_PROPERTY);
+		if (null == run || run.trim().isEmpty()) {
+			throw new IOException("property " + SHARD_RUN_PROPERTY + " is not set");
+		}
+
+		File runDir = runDir(dir, run);
+		if (!runDir.equals(shardRunDir)) {
+			if (!(runDir.isDirectory() || runDir.mkdirs())) {
+				throw new IOException("cannot create shard directory " + runDir);
+			}
+			// the runtime name is usually pid@host, the UUID keeps it unique anyway
+			String jvmName = fileNameOf(ManagementFactory.getRuntimeMXBean().getName());
+			shardFile = new File(runDir, jvmName + "-" + UUID.randomUUID() + SHARD_SUFFIX);
+			shardRunDir = runDir;
+		}
+		return shardFile;
+	}
+
+	private static File runDir(File dir, String run) {
+		return new File(dir, fileNameOf(run));
+	}
+
+	private static String fileNameOf(String name) {
+		return name.replaceAll("[^\\w.-]", "_");
+	}
+
+	/**
+	 * Registers the coverage recorded in every shard of the given run in the
+	 * given directory with the given registry.
+	 *
+	 * @return the number of test classes registered
+	 * @throws IOException
+	 *             if the directory of the run cannot be listed, or a shard
+	 *             cannot be read or is corrupt
+	 */
+	public static int readAll(File dir, String run, CoverageRegistry registry) throws IOException {
+		File runDir = runDir(dir, run);
+		File[] shards = runDir.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(File file) {
+				return file.isFile() && file.getName().endsWith(SHARD_SUFFIX);
+			}
+		});
+		if (null == shards) {
+			throw new IOException("cannot list shard directory " + runDir);
+		}
+
+		int classes = 0;
+		for (File shard : shards) {
+			classes += read(shard, registry);
+		}
+		return classes;
+	}
+
+	private static int read(File shard, CoverageRegistry registry) throws IOException {
+		int classes = 0;
+		long remaining = shard.length();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(shard)))) {
+			while (true) {
+				int length;
+				try {
+					length = in.readInt();
+				} catch (EOFException e) {
+					// end of the shard, or a length cut short
+					return classes;
+				}
+				remaining -= 4;
+				if (length < 0) {
+					throw new IOException("negative record length " + length);
+				}
+				if (length > remaining) {
+					// a record cut short
+					return classes;
+				}
+				byte[] record = new byte[length];
+				in.readFully(record);
+				remaining -= length;
+
+				DataInputStream recordIn = new DataInputStream(new ByteArrayInputStream(record));
+				recordIn.readUTF(); // class name
+				CoverageManifest manifest = CoverageManifest.readFrom(recordIn);
+				registry.register(manifest.getExpectedTestUnitsDescriptors(),
+						manifest.getCoveredTestCaseDescriptors());
+				classes++;
+			}
+		} catch (IOException e) {
+			throw new IOException("corrupt coverage shard " + shard + ": " + e.getMessage(), e);
+		}
+	}
+
+	private CoverageShards() {
+	}
+
+}
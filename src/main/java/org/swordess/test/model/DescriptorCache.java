@@ -0,0 +1,101 @@
+package org.swordess.test.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * An on-disk cache of the descriptors extracted from test classes.
+ * <p>
+ * Each entry is keyed by a hash of the bytecode of the test class and its
+ * super classes, so it becomes stale as soon as any of those class files
+ * changes. The cache is disabled unless the {@value #CACHE_DIR_PROPERTY}
+ * system property gives its directory, e.g.
+ * <tt>target/swordess-test-cache</tt>.
+ */
+public class DescriptorCache {
+
+	public static final String CACHE_DIR_PROPERTY = "swordess.test.cacheDir";
+
+	private final File dir;
+
+	public DescriptorCache(File dir) {
+		this.dir = dir;
+	}
+
+	/**
+	 * Returns the cache configured by the system property, or null if the
+	 * cache is disabled.
+	 */
+	public static DescriptorCache fromSystemProperty() {
+		File dir = dirFromSystemProperty();
+		return null == dir ? null : new DescriptorCache(dir);
+	}
+
+	/**
+	 * Returns the cache directory configured by the system property, or null
+	 * if the cache is disabled. Other data kept across runs, such as recorded
+	 * method runtimes, is stored there as well.
+	 */
+	public static File dirFromSystemProperty() {
+		String dir = System.getProperty(CACHE_DIR_PROPERTY);
+		return null == dir || dir.trim().isEmpty() ? null : new File(dir);
+	}
+
+	/**
+	 * Returns the cached descriptors of the given class, or null if there is
+	 * no entry or the entry is stale or corrupt.
+	 */
+	public CoverageManifest get(Class<?> clazz) {
+		byte[] hash = CoverageManifest.classHashOf(clazz);
+		File entry = entryOf(clazz);
+		if (null == hash || !entry.isFile()) {
+			return null;
+		}
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(entry)))) {
+			return CoverageManifest.readFrom(in, hash);
+		} catch (IOException | RuntimeException e) {
+			// a corrupt entry is a miss, the descriptors are extracted again
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the descriptors of the given class, replacing any existing
+	 * entry. Failures are ignored as the cache is only an optimization.
+	 */
+	public void put(Class<?> clazz, CoverageManifest manifest) {
+		byte[] hash = CoverageManifest.classHashOf(clazz);
+		if (null == hash || !(dir.isDirectory() || dir.mkdirs())) {
+			return;
+		}
+
+		File entry = entryOf(clazz);
+		File tmp = null;
+		try {
+			tmp = File.createTempFile(clazz.getName(), ".tmp", dir);
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+				manifest.writeTo(out, hash);
+			}
+			Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			if (null != tmp) {
+				tmp.delete();
+			}
+		}
+	}
+
+	private File entryOf(Class<?> clazz) {
+		return new File(dir, clazz.getName() + ".cache");
+	}
+
+}
@@ -1,50 +1,104 @@
 package org.swordess.test.model;
 
-import java.util.ArrayList;
-import java.util.List;
-
+import org.swordess.test.Builder;
 import org.swordess.test.Cover;
 
 public class TestCaseDescriptor {
 
+	private String testMethodName;
 	private String methodSignature;
-	private List<Integer> validECs = new ArrayList<>();
-	private List<Integer> invalidECs = new ArrayList<>();
-	private List<Integer> boundaries = new ArrayList<>();
+	private CoverageSet validECs = CoverageSet.EMPTY;
+	private CoverageSet invalidECs = CoverageSet.EMPTY;
+	private CoverageSet boundaries = CoverageSet.EMPTY;
+	
+	private TestCaseDescriptor() {
+	}
 	
 	public TestCaseDescriptor(Cover cover) {
+		this(null, cover);
+	}
+	
+	/**
+	 * @param testMethodName
+	 *            name of the test method annotated with the cover, can be null
+	 *            if unknown
+	 * @param cover
+	 *            the cover annotation, should not be null
+	 */
+	public TestCaseDescriptor(String testMethodName, Cover cover) {
+		this.testMethodName = testMethodName;
 		methodSignature = cover.methodSignature();
 		if (null != cover.validECs()) {
-			for (int validEC : cover.validECs()) {
-				validECs.add(validEC);
-			}
+			validECs = CoverageSet.of(cover.validECs());
 		}
 		if (null != cover.invalidECs()) {
-			for (int invalidEC : cover.invalidECs()) {
-				invalidECs.add(invalidEC);
-			}
+			invalidECs = CoverageSet.of(cover.invalidECs());
 		}
 		if (null != cover.boundaries()) {
-			for (int boundary : cover.boundaries()) {
-				boundaries.add(boundary);
-			}
+			boundaries = CoverageSet.of(cover.boundaries());
 		}
 	}
 
+	public String getTestMethodName() {
+		return testMethodName;
+	}
+
 	public String getMethodSignature() {
 		return methodSignature;
 	}
 
-	public List<Integer> getValidECs() {
-		return new ArrayList<>(validECs);
+	public CoverageSet getValidECs() {
+		return validECs;
 	}
 
-	public List<Integer> getInvalidECs() {
-		return new ArrayList<>(invalidECs);
+	public CoverageSet getInvalidECs() {
+		return invalidECs;
 	}
 
-	public List<Integer> getBoundaries() {
-		return new ArrayList<>(boundaries);
+	public CoverageSet getBoundaries() {
+		return boundaries;
+	}
+	
+	public static class TestCaseDescriptorBuilder implements Builder<TestCaseDescriptor> {
+		
+		private final String testMethodName;
+		private final String methodSignature;
+		
+		private CoverageSet validECs = CoverageSet.EMPTY;
+		private CoverageSet invalidECs = CoverageSet.EMPTY;
+		private CoverageSet boundaries = CoverageSet.EMPTY;
+		
+		public TestCaseDescriptorBuilder(String testMethodName, String methodSignature) {
+			this.testMethodName = testMethodName;
+			this.methodSignature = methodSignature;
+		}
+		
+		public TestCaseDescriptorBuilder validECs(CoverageSet validECs) {
+			this.validECs = validECs;
+			return this;
+		}
+		
+		public TestCaseDescriptorBuilder invalidECs(CoverageSet invalidECs) {
+			this.invalidECs = invalidECs;
+			return this;
+		}
+		
+		public TestCaseDescriptorBuilder boundaries(CoverageSet boundaries) {
+			this.boundaries = boundaries;
+			return this;
+		}
+
+		@Override
+		public TestCaseDescriptor build() {
+			TestCaseDescriptor descriptor = new TestCaseDescriptor();
+			descriptor.testMethodName = testMethodName;
+			descriptor.methodSignature = methodSignature;
+			descriptor.validECs = validECs;
+			descriptor.invalidECs = invalidECs;
+			descriptor.boundaries = boundaries;
+			return descriptor;
+		}
+		
 	}
 
 }
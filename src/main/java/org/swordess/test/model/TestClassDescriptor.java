@@ -25,19 +25,56 @@ public class TestClassDescriptor {
 	public TestClassDescriptor(TestClass testClass) {
 		this.testClass = testClass;
 		
-		TestCaseAnalysis testCaseAnalysis = getAnnotation(TestCaseAnalysis.class);
-		if (null == testCaseAnalysis) {
-			throw new IllegalStateException(TestCaseAnalysis.class
-					+ " not present on target test class "
-					+ testClass.getName());
-		}
-		
 		extractExpectedTestUnits();
 		extractCoveredTestUnits();
 	}
 	
+	private TestClassDescriptor(TestClass testClass, CoverageManifest manifest) {
+		this.testClass = testClass;
+		expectedDescriptors.addAll(manifest.getExpectedTestUnitsDescriptors());
+		coveredDescriptors.addAll(manifest.getCoveredTestCaseDescriptors());
+	}
+	
+	/**
+	 * Describes the given test class with the first of the following which is
+	 * available:
+	 * <ol>
+	 * <li>the manifest generated at compile time</li>
+	 * <li>an up-to-date entry of the {@link DescriptorCache}</li>
+	 * <li>reflecting over its annotations, which also refreshes the cache</li>
+	 * </ol>
+	 * 
+	 * @see CoverageManifest#load(Class)
+	 * @see DescriptorCache#fromSystemProperty()
+	 */
+	public static TestClassDescriptor load(TestClass testClass) {
+		Class<?> javaClass = testClass.getJavaClass();
+		CoverageManifest manifest = CoverageManifest.load(javaClass);
+		if (null != manifest) {
+			return new TestClassDescriptor(testClass, manifest);
+		}
+		
+		DescriptorCache cache = DescriptorCache.fromSystemProperty();
+		if (null == cache) {
+			return new TestClassDescriptor(testClass);
+		}
+		
+		manifest = cache.get(javaClass);
+		if (null != manifest) {
+			return new TestClassDescriptor(testClass, manifest);
+		}
+		TestClassDescriptor descriptor = new TestClassDescriptor(testClass);
+		cache.put(javaClass, new CoverageManifest(descriptor.expectedDescriptors, descriptor.coveredDescriptors));
+		return descriptor;
+	}
+	
 	private void extractExpectedTestUnits() {
-		for (MethodAnalysis methodAnalysis : getAnnotation(TestCaseAnalysis.class).value()) {
+		TestCaseAnalysis testCaseAnalysis = getAnnotation(TestCaseAnalysis.class);
+		if (null == testCaseAnalysis) {
+			// only covers units analysed elsewhere, e.g. in a CoverageSuite
+			return;
+		}
+		for (MethodAnalysis methodAnalysis : testCaseAnalysis.value()) {
 			expectedDescriptors.add(new TestUnitDescriptor(methodAnalysis));
 		}
 	}
@@ -45,7 +82,7 @@ public class TestClassDescriptor {
 	private void extractCoveredTestUnits() {
 		for (FrameworkMethod coveredTestCase : listCoveredTestCases()) {
 			Cover cover = coveredTestCase.getAnnotation(Cover.class);
-			coveredDescriptors.add(new TestCaseDescriptor(cover));
+			coveredDescriptors.add(new TestCaseDescriptor(coveredTestCase.getName(), cover));
 		}
 	}
 	
@@ -1,22 +1,20 @@
 package org.swordess.test.model;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.swordess.test.Boundary;
 import org.swordess.test.Builder;
 import org.swordess.test.EquivalentCondition;
 import org.swordess.test.EquivalentCondition.Condition;
 import org.swordess.test.TestCaseAnalysis.MethodAnalysis;
+import org.swordess.test.model.CoverageSet.CoverageSetBuilder;
 
 public class TestUnitDescriptor {
 
 	private final MethodAnalysis methodAnalysis;
 	
 	private String methodSignature;
-	private List<Integer> validECs;
-	private List<Integer> invalidECs;
-	private List<Integer> boundaries;
+	private CoverageSet validECs = CoverageSet.EMPTY;
+	private CoverageSet invalidECs = CoverageSet.EMPTY;
+	private CoverageSet boundaries = CoverageSet.EMPTY;
 	
 	private TestUnitDescriptor() {
 		this(null);
@@ -37,42 +35,45 @@ public class TestUnitDescriptor {
 	}
 	
 	private void extractNbrFromEquivalentConditions() {
+		CoverageSetBuilder validBuilder = new CoverageSetBuilder();
+		CoverageSetBuilder invalidBuilder = new CoverageSetBuilder();
 		for (EquivalentCondition ec : methodAnalysis.equivalentConditions()) {
 			if (null != ec.valid()) {
-				validECs = new ArrayList<>();
 				for (Condition condition : ec.valid()) {
-					validECs.add(condition.nbr());
+					validBuilder.add(condition.nbr());
 				}
 			}
 			if (null != ec.invalid()) {
-				invalidECs = new ArrayList<>();
 				for (Condition condition : ec.invalid()) {
-					invalidECs.add(condition.nbr());
+					invalidBuilder.add(condition.nbr());
 				}
 			}
 		}
+		validECs = validBuilder.build();
+		invalidECs = invalidBuilder.build();
 	}
 	
 	private void extractNbrFromBoundaries() {
-		boundaries = new ArrayList<>();
+		CoverageSetBuilder builder = new CoverageSetBuilder();
 		for (Boundary boundary : methodAnalysis.boundaries()) {
-			boundaries.add(boundary.nbr());
+			builder.add(boundary.nbr());
 		}
+		boundaries = builder.build();
 	}
 
 	private void setMethodSignature(String methodSignature) {
 		this.methodSignature = methodSignature;
 	}
 
-	private void setValidECs(List<Integer> validECs) {
+	private void setValidECs(CoverageSet validECs) {
 		this.validECs = validECs;
 	}
 
-	private void setInvalidECs(List<Integer> invalidECs) {
+	private void setInvalidECs(CoverageSet invalidECs) {
 		this.invalidECs = invalidECs;
 	}
 
-	private void setBoundaries(List<Integer> boundaries) {
+	private void setBoundaries(CoverageSet boundaries) {
 		this.boundaries = boundaries;
 	}
 
@@ -80,41 +81,41 @@ public class TestUnitDescriptor {
 		return methodSignature;
 	}
 
-	public List<Integer> getValidECs() {
-		return new ArrayList<>(validECs);
+	public CoverageSet getValidECs() {
+		return validECs;
 	}
 
-	public List<Integer> getInvalidECs() {
-		return new ArrayList<>(invalidECs);
+	public CoverageSet getInvalidECs() {
+		return invalidECs;
 	}
 
-	public List<Integer> getBoundaries() {
-		return new ArrayList<>(boundaries);
+	public CoverageSet getBoundaries() {
+		return boundaries;
 	}
 	
 	public static class TestUnitDescriptorBuilder implements Builder<TestUnitDescriptor> {
 		
 		private final String methodSignature;
 
-		private List<Integer> validECs;
-		private List<Integer> invalidECs;
-		private List<Integer> boundaries;
+		private CoverageSet validECs;
+		private CoverageSet invalidECs;
+		private CoverageSet boundaries;
 		
 		TestUnitDescriptorBuilder(String methodSignature) {
 			this.methodSignature = methodSignature;
 		}
 
-		TestUnitDescriptorBuilder validECs(List<Integer> validECs) {
+		TestUnitDescriptorBuilder validECs(CoverageSet validECs) {
 			this.validECs = validECs;
 			return this;
 		}
 
-		TestUnitDescriptorBuilder invalidECs(List<Integer> invalidECs) {
+		TestUnitDescriptorBuilder invalidECs(CoverageSet invalidECs) {
 			this.invalidECs = invalidECs;
 			return this;
 		}
 
-		TestUnitDescriptorBuilder boundaries(List<Integer> boundaries) {
+		TestUnitDescriptorBuilder boundaries(CoverageSet boundaries) {
 			this.boundaries = boundaries;
 			return this;
 		}
@@ -122,13 +123,13 @@ public class TestUnitDescriptor {
 		@Override
 		public TestUnitDescriptor build() {
 			if (null == validECs) {
-				validECs = new ArrayList<>();
+				validECs = CoverageSet.EMPTY;
 			}
 			if (null == invalidECs) {
-				invalidECs = new ArrayList<>();
+				invalidECs = CoverageSet.EMPTY;
 			}
 			if (null == boundaries) {
-				boundaries = new ArrayList<>();
+				boundaries = CoverageSet.EMPTY;
 			}
 			
 			TestUnitDescriptor descriptor = new TestUnitDescriptor();
@@ -0,0 +1,438 @@
+package org.swordess.test.processor;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.NoSuchFileException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import org.swordess.test.Boundary;
+import org.swordess.test.Cover;
+import org.swordess.test.EquivalentCondition;
+import org.swordess.test.EquivalentCondition.Condition;
+import org.swordess.test.TestCaseAnalysis;
+import org.swordess.test.TestCaseAnalysis.MethodAnalysis;
+import org.swordess.test.model.CoverageManifest;
+import org.swordess.test.model.TestCaseDescriptor;
+import org.swordess.test.model.TestUnitDescriptor;
+
+/**
+ * Resolves {@link TestCaseAnalysis} and {@link Cover} annotations at compile
+ * time and writes a {@link CoverageManifest} for every analysed test class.
+ * <p>
+ * The following are reported as compile errors:
+ * <ul>
+ * <li>a signature analysed more than once in the same class</li>
+ * <li>an EC number or boundary number declared more than once in the same
+ * analysis</li>
+ * <li>a {@link Cover} referring to an EC number or boundary number which is
+ * not analysed for its signature</li>
+ * </ul>
+ * A {@link Cover} referring to a signature which is not analysed in the same
+ * class is only warned about, as the analysis may live in another class of a
+ * {@link org.swordess.test.CoverageSuite} or another coverage shard.
+ * <p>
+ * A manifest is stored with the hash of the class files of the test class
+ * and its super classes, so it can only be written once javac has generated
+ * all of them. The javac task listener this takes is looked up reflectively,
+ * as its API is not on the class path of every JDK. Other compilers get no
+ * manifests, and the runner falls back to reflection.
+ */
+@SupportedAnnotationTypes({
+	"org.swordess.test.TestCaseAnalysis",
+	"org.swordess.test.Cover"
+})
+public class CoverageManifestProcessor extends AbstractProcessor {
+
+	private static final String TEST = "org.junit.Test";
+	private static final String IGNORE = "org.junit.Ignore";
+
+	private static final String JAVAC_TASK = "com.sun.source.util.JavacTask";
+	private static final String TASK_LISTENER = "com.sun.source.util.TaskListener";
+	private static final String TASK_EVENT = "com.sun.source.util.TaskEvent";
+
+	// null if the compiler is not javac
+	private ManifestWriter manifestWriter;
+
+	// errors of the test class being processed
+	private final Map<Element, List<String>> elementToErrors = new LinkedHashMap<>();
+
+	@Override
+	public synchronized void init(ProcessingEnvironment processingEnv) {
+		super.init(processingEnv);
+		try {
+			manifestWriter = new ManifestWriter(processingEnv.getClass().getClassLoader());
+		} catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+			// not javac, or a javac older than 8
+			processingEnv.getMessager().printMessage(Kind.NOTE,
+					"coverage manifests are not generated by this compiler: " + e);
+		}
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (null != manifestWriter) {
+			manifestWriter.addCompiled(roundEnv.getRootElements());
+		}
+		for (TypeElement testClass : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(TestCaseAnalysis.class))) {
+			processTestClass(testClass);
+			reportErrors();
+		}
+		return false;
+	}
+
+	private void processTestClass(TypeElement testClass) {
+		Map<String, AnalysedNumbers> signatureToNumbers = new HashMap<>();
+		List<TestUnitDescriptor> expectedDescriptors = new ArrayList<>();
+		for (MethodAnalysis methodAnalysis : testClass.getAnnotation(TestCaseAnalysis.class).value()) {
+			if (signatureToNumbers.containsKey(methodAnalysis.signature())) {
+				error(testClass, "duplicate analysis of signature " + methodAnalysis.signature());
+				continue;
+			}
+			signatureToNumbers.put(methodAnalysis.signature(), collectNumbers(testClass, methodAnalysis));
+			try {
+				expectedDescriptors.add(new TestUnitDescriptor(methodAnalysis));
+			} catch (IllegalArgumentException e) {
+				// e.g. a negative number
+				error(testClass, "invalid analysis of " + methodAnalysis.signature() + ": " + e.getMessage());
+			}
+		}
+
+		List<TestCaseDescriptor> coveredDescriptors = new ArrayList<>();
+		for (ExecutableElement method : listCoveredTestCases(testClass)) {
+			Cover cover = method.getAnnotation(Cover.class);
+			AnalysedNumbers numbers = signatureToNumbers.get(cover.methodSignature());
+			if (null == numbers) {
+				processingEnv.getMessager().printMessage(Kind.WARNING, "signature " + cover.methodSignature()
+						+ " is not analysed in this class", method);
+			} else {
+				checkCovered(method, cover.methodSignature(), "valid EC", cover.validECs(), numbers.validECs);
+				checkCovered(method, cover.methodSignature(), "invalid EC", cover.invalidECs(), numbers.invalidECs);
+				checkCovered(method, cover.methodSignature(), "boundary", cover.boundaries(), numbers.boundaries);
+			}
+			try {
+				coveredDescriptors.add(new TestCaseDescriptor(method.getSimpleName().toString(), cover));
+			} catch (IllegalArgumentException e) {
+				error(method, "invalid cover of " + cover.methodSignature() + ": " + e.getMessage());
+			}
+		}
+
+		if (null != manifestWriter) {
+			manifestWriter.add(testClass, new CoverageManifest(expectedDescriptors, coveredDescriptors));
+		}
+	}
+
+	private AnalysedNumbers collectNumbers(TypeElement testClass, MethodAnalysis methodAnalysis) {
+		AnalysedNumbers numbers = new AnalysedNumbers();
+		Set<Integer> ecs = new HashSet<>();
+		for (EquivalentCondition ec : methodAnalysis.equivalentConditions()) {
+			for (Condition condition : ec.valid()) {
+				checkUnique(testClass, methodAnalysis, "EC", condition.nbr(), ecs);
+				numbers.validECs.add(condition.nbr());
+			}
+			for (Condition condition : ec.invalid()) {
+				checkUnique(testClass, methodAnalysis, "EC", condition.nbr(), ecs);
+				numbers.invalidECs.add(condition.nbr());
+			}
+		}
+		for (Boundary boundary : methodAnalysis.boundaries()) {
+			checkUnique(testClass, methodAnalysis, "boundary", boundary.nbr(), numbers.boundaries);
+		}
+		return numbers;
+	}
+
+	private void checkUnique(TypeElement testClass, MethodAnalysis methodAnalysis,
+			String kind, int nbr, Set<Integer> declared) {
+		if (!declared.add(nbr)) {
+			error(testClass, "duplicate " + kind + " " + nbr + " in analysis of "
+					+ methodAnalysis.signature());
+		}
+	}
+
+	private void checkCovered(ExecutableElement method, String signature,
+			String kind, int[] nbrs, Set<Integer> declared) {
+		for (int nbr : nbrs) {
+			if (!declared.contains(nbr)) {
+				error(method, "unknown " + kind + " " + nbr + " of " + signature);
+			}
+		}
+	}
+
+	/**
+	 * Lists the same methods as the runtime does, i.e. methods annotated with
+	 * {@link Cover} and <code>@Test</code> but not <code>@Ignore</code>,
+	 * including the ones inherited from super classes.
+	 */
+	private List<ExecutableElement> listCoveredTestCases(TypeElement testClass) {
+		Map<String, ExecutableElement> nameToMethod = new LinkedHashMap<>();
+		for (TypeElement type = testClass; null != type; type = superclassOf(type)) {
+			for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+				String name = method.getSimpleName().toString();
+				if (!nameToMethod.containsKey(name)) {
+					nameToMethod.put(name, method);
+				}
+			}
+		}
+
+		List<ExecutableElement> coveredTestCases = new ArrayList<>();
+		for (ExecutableElement method : nameToMethod.values()) {
+			if (null != method.getAnnotation(Cover.class)
+					&& isAnnotatedWith(method, TEST) && !isAnnotatedWith(method, IGNORE)) {
+				coveredTestCases.add(method);
+			}
+		}
+		return coveredTestCases;
+	}
+
+	private static TypeElement superclassOf(TypeElement type) {
+		TypeMirror superclass = type.getSuperclass();
+		if (superclass.getKind() != TypeKind.DECLARED) {
+			return null;
+		}
+		return (TypeElement) ((DeclaredType) superclass).asElement();
+	}
+
+	private static boolean isAnnotatedWith(Element element, String annotationName) {
+		for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+			TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+			if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void error(Element element, String message) {
+		List<String> messages = elementToErrors.get(element);
+		if (null == messages) {
+			messages = new ArrayList<>();
+			elementToErrors.put(element, messages);
+		}
+		messages.add(message);
+	}
+
+	/**
+	 * Reports the errors of each element as one error, as javac 8 reports
+	 * only the first error at a position.
+	 */
+	private void reportErrors() {
+		for (Map.Entry<Element, List<String>> entry : elementToErrors.entrySet()) {
+			StringBuilder message = new StringBuilder();
+			for (String error : entry.getValue()) {
+				if (message.length() > 0) {
+					message.append("; ");
+				}
+				message.append(error);
+			}
+			processingEnv.getMessager().printMessage(Kind.ERROR, message, entry.getKey());
+		}
+		elementToErrors.clear();
+	}
+
+	/**
+	 * Writes the manifest of each test class once the class files of the
+	 * class and of its super classes compiled along with it are generated.
+	 * It handles the calls of a proxy of the javac <code>TaskListener</code>.
+	 */
+	private class ManifestWriter implements InvocationHandler {
+
+		// javac enters the classes anew after processing, so they are kept by name
+		private final Map<String, CoverageManifest> pending = new LinkedHashMap<>();
+		private final Set<String> compiled = new HashSet<>();
+		private final Set<String> generated = new HashSet<>();
+
+		private final Method getKind;
+		private final Method getTypeElement;
+
+		/**
+		 * Registers a task listener with the javac task of the processing
+		 * environment.
+		 * 
+		 * @param javacLoader
+		 *            the class loader of javac
+		 */
+		ManifestWriter(ClassLoader javacLoader) throws ReflectiveOperationException {
+			Class<?> javacTask = Class.forName(JAVAC_TASK, false, javacLoader);
+			Class<?> taskListener = Class.forName(TASK_LISTENER, false, javacLoader);
+			Class<?> taskEvent = Class.forName(TASK_EVENT, false, javacLoader);
+			getKind = taskEvent.getMethod("getKind");
+			getTypeElement = taskEvent.getMethod("getTypeElement");
+
+			Object task = javacTask.getMethod("instance", ProcessingEnvironment.class).invoke(null, processingEnv);
+			Object listener = Proxy.newProxyInstance(javacLoader, new Class<?>[] { taskListener }, this);
+			javacTask.getMethod("addTaskListener", taskListener).invoke(task, listener);
+		}
+
+		/**
+		 * Notes the classes compiled from source in the current round, which
+		 * must be generated before the manifests depending on them are written.
+		 */
+		void addCompiled(Set<? extends Element> rootElements) {
+			for (TypeElement type : ElementFilter.typesIn(rootElements)) {
+				if (compiled.add(binaryNameOf(type))) {
+					addCompiled(new HashSet<>(type.getEnclosedElements()));
+				}
+			}
+		}
+
+		void add(TypeElement testClass, CoverageManifest manifest) {
+			pending.put(testClass.getQualifiedName().toString(), manifest);
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws ReflectiveOperationException {
+			switch (method.getName()) {
+			case "finished":
+				finished(args[0]);
+				return null;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return ManifestWriter.class.getName();
+			default:
+				// started
+				return null;
+			}
+		}
+
+		private void finished(Object taskEvent) throws ReflectiveOperationException {
+			if (!"GENERATE".equals(((Enum<?>) getKind.invoke(taskEvent)).name())) {
+				return;
+			}
+			generated.add(binaryNameOf((TypeElement) getTypeElement.invoke(taskEvent)));
+			for (Iterator<Map.Entry<String, CoverageManifest>> it = pending.entrySet().iterator(); it.hasNext();) {
+				Map.Entry<String, CoverageManifest> entry = it.next();
+				TypeElement testClass = processingEnv.getElementUtils().getTypeElement(entry.getKey());
+				if (null == testClass) {
+					it.remove();
+				} else if (isGenerated(testClass)) {
+					write(testClass, entry.getValue());
+					it.remove();
+				}
+			}
+		}
+
+		private boolean isGenerated(TypeElement testClass) {
+			for (TypeElement type = testClass; null != type; type = superclassOf(type)) {
+				String binaryName = binaryNameOf(type);
+				if (compiled.contains(binaryName) && !generated.contains(binaryName)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void write(TypeElement testClass, CoverageManifest manifest) {
+			String binaryName = binaryNameOf(testClass);
+			try {
+				byte[] hash = classHashOf(testClass);
+				if (null == hash) {
+					throw new IOException("class file of " + binaryName + " not found");
+				}
+				FileObject resource = processingEnv.getFiler().createResource(
+						StandardLocation.CLASS_OUTPUT, "", CoverageManifest.resourceName(binaryName), testClass);
+				try (DataOutputStream out = new DataOutputStream(
+						new BufferedOutputStream(resource.openOutputStream()))) {
+					manifest.writeTo(out, hash);
+				}
+			} catch (IOException | NoSuchAlgorithmException e) {
+				processingEnv.getMessager().printMessage(Kind.WARNING,
+						"cannot write coverage manifest: " + e.getMessage(), testClass);
+			}
+		}
+
+		/**
+		 * Hashes the same class files as {@link CoverageManifest#classHashOf(Class)}
+		 * does at runtime, stopping at the first super class which has no class
+		 * file in the output or on the class path, e.g. <code>Object</code>.
+		 *
+		 * @return the hash, or null if the class file of the test class is not
+		 *         found
+		 */
+		private byte[] classHashOf(TypeElement testClass) throws IOException, NoSuchAlgorithmException {
+			MessageDigest digest = MessageDigest.getInstance(CoverageManifest.HASH_ALGORITHM);
+			for (TypeElement type = testClass; null != type; type = superclassOf(type)) {
+				byte[] classFile = readClassFile(binaryNameOf(type));
+				if (null == classFile) {
+					if (type == testClass) {
+						return null;
+					}
+					break;
+				}
+				digest.update(classFile);
+			}
+			return digest.digest();
+		}
+
+		private byte[] readClassFile(String binaryName) throws IOException {
+			String relativeName = binaryName.replace('.', '/') + ".class";
+			for (StandardLocation location : new StandardLocation[] { StandardLocation.CLASS_OUTPUT,
+					StandardLocation.CLASS_PATH }) {
+				try (InputStream in = processingEnv.getFiler().getResource(location, "", relativeName)
+						.openInputStream()) {
+					ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+					byte[] buf = new byte[8192];
+					int bytesRead;
+					while (-1 != (bytesRead = in.read(buf))) {
+						bytes.write(buf, 0, bytesRead);
+					}
+					return bytes.toByteArray();
+				} catch (FileNotFoundException | NoSuchFileException | IllegalArgumentException e) {
+					// not in this location
+				}
+			}
+			return null;
+		}
+
+		private String binaryNameOf(TypeElement type) {
+			return processingEnv.getElementUtils().getBinaryName(type).toString();
+		}
+
+	}
+
+	private static class AnalysedNumbers {
+		final Set<Integer> validECs = new HashSet<>();
+		final Set<Integer> invalidECs = new HashSet<>();
+		final Set<Integer> boundaries = new HashSet<>();
+	}
+
+}
@@ -0,0 +1,108 @@
+package org.swordess.test.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.swordess.test.model.CoverageSet;
+import org.swordess.test.report.CoverageReportReader.SignatureCursor;
+
+/**
+ * Compares two coverage reports, e.g. of two builds.
+ * <p>
+ * Both reports list their signatures in ascending order, so they are
+ * compared in a single merge pass, and records whose encoded sets are equal
+ * are skipped without being decoded.
+ */
+public class CoverageReportDiff {
+
+	/**
+	 * Returns one line for every change from <code>base</code> to
+	 * <code>head</code>. Lines starting with <code>-</code> are coverage
+	 * lost, lines starting with <code>+</code> are coverage gained, and
+	 * lines starting with <code>*</code> are changes of the analysis.
+	 */
+	public static List<String> diff(CoverageReportReader base, CoverageReportReader head) throws IOException {
+		List<String> changes = new ArrayList<>();
+		SignatureCursor baseCursor = base.signatures();
+		SignatureCursor headCursor = head.signatures();
+		boolean hasBase = baseCursor.next();
+		boolean hasHead = headCursor.next();
+		while (hasBase || hasHead) {
+			int order = !hasBase ? 1 : !hasHead ? -1
+					: baseCursor.getSignature().compareTo(headCursor.getSignature());
+			if (order < 0) {
+				changes.add("* " + baseCursor.getSignature() + ": no longer analysed");
+				hasBase = baseCursor.next();
+			} else if (order > 0) {
+				changes.add("* " + headCursor.getSignature() + ": newly analysed");
+				hasHead = headCursor.next();
+			} else {
+				if (!baseCursor.sameSetsAs(headCursor)) {
+					compare(changes, baseCursor, headCursor);
+				}
+				hasBase = baseCursor.next();
+				hasHead = headCursor.next();
+			}
+		}
+		return changes;
+	}
+
+	private static void compare(List<String> changes, SignatureCursor base, SignatureCursor head) throws IOException {
+		String signature = base.getSignature();
+		compare(changes, signature, "validECs",
+				base.getExpectedValidECs(), base.getCoveredValidECs(),
+				head.getExpectedValidECs(), head.getCoveredValidECs());
+		compare(changes, signature, "invalidECs",
+				base.getExpectedInvalidECs(), base.getCoveredInvalidECs(),
+				head.getExpectedInvalidECs(), head.getCoveredInvalidECs());
+		compare(changes, signature, "boundaries",
+				base.getExpectedBoundaries(), base.getCoveredBoundaries(),
+				head.getExpectedBoundaries(), head.getCoveredBoundaries());
+	}
+
+	private static void compare(List<String> changes, String signature, String kind,
+			CoverageSet baseExpected, CoverageSet baseCovered,
+			CoverageSet headExpected, CoverageSet headCovered) {
+		CoverageSet lost = baseCovered.difference(headCovered);
+		if (!lost.isEmpty()) {
+			changes.add("- " + signature + " " + kind + ": " + lost);
+		}
+		CoverageSet gained = headCovered.difference(baseCovered);
+		if (!gained.isEmpty()) {
+			changes.add("+ " + signature + " " + kind + ": " + gained);
+		}
+		if (!baseExpected.equals(headExpected)) {
+			changes.add("* " + signature + " " + kind + ": analysed " + baseExpected + " -> " + headExpected);
+		}
+	}
+
+	/**
+	 * Prints the changes between two report files and exits with status 1 if
+	 * any coverage was lost.
+	 * 
+	 * @param args
+	 *            paths of the base report and the head report
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("usage: CoverageReportDiff <base report> <head report>");
+			System.exit(2);
+		}
+
+		boolean lost = false;
+		try (CoverageReportReader base = new CoverageReportReader(new File(args[0]));
+				CoverageReportReader head = new CoverageReportReader(new File(args[1]))) {
+			for (String change : diff(base, head)) {
+				System.out.println(change);
+				lost |= change.startsWith("-");
+			}
+		}
+		System.exit(lost ? 1 : 0);
+	}
+
+	private CoverageReportDiff() {
+	}
+
+}
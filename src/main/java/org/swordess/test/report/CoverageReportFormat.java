@@ -0,0 +1,37 @@
+package org.swordess.test.report;
+
+/**
+ * Layout of a binary coverage report, all numbers big-endian:
+ * 
+ * <pre>
+ * int     magic
+ * short   version
+ * int     number of signatures
+ *   string  signature, in ascending order
+ *   set     expected valid ECs
+ *   set     expected invalid ECs
+ *   set     expected boundaries
+ *   set     covered valid ECs
+ *   set     covered invalid ECs
+ *   set     covered boundaries
+ * int     number of tests
+ *   string  test, as &lt;class name&gt;#&lt;method name&gt;
+ *   string  signature
+ *   set     covered valid ECs
+ *   set     covered invalid ECs
+ *   set     covered boundaries
+ * </pre>
+ * 
+ * where a <code>string</code> is an int length followed by that many UTF-8
+ * bytes, and a <code>set</code> is written by
+ * {@link org.swordess.test.model.CoverageSet#writeTo(java.io.DataOutput)}.
+ */
+final class CoverageReportFormat {
+
+	static final int MAGIC = 0x53574352;
+	static final int VERSION = 1;
+
+	private CoverageReportFormat() {
+	}
+
+}
@@ -0,0 +1,268 @@
+package org.swordess.test.report;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+import org.swordess.test.model.CoverageSet;
+
+/**
+ * Reads a binary coverage report through a memory mapping of the file.
+ * Records are decoded one at a time while iterating, so reading a report
+ * takes time proportional to its size and constant heap.
+ * 
+ * @see CoverageReportFormat
+ */
+public class CoverageReportReader implements Closeable {
+
+	private final RandomAccessFile file;
+	// typed ByteBuffer, as MappedByteBuffer only overrides duplicate() since Java 9
+	private final ByteBuffer buffer;
+
+	private final int signatureCount;
+	private final int signaturesStart;
+
+	/**
+	 * @throws IOException
+	 *             if the file is not a report of the supported version
+	 */
+	public CoverageReportReader(File reportFile) throws IOException {
+		file = new RandomAccessFile(reportFile, "r");
+		try {
+			buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+			if (buffer.remaining() < 10 || buffer.getInt() != CoverageReportFormat.MAGIC) {
+				throw new IOException("not a coverage report: " + reportFile);
+			}
+			int version = buffer.getShort();
+			if (version != CoverageReportFormat.VERSION) {
+				throw new IOException("unsupported coverage report version " + version);
+			}
+			signatureCount = buffer.getInt();
+			signaturesStart = buffer.position();
+		} catch (IOException | RuntimeException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	public int getSignatureCount() {
+		return signatureCount;
+	}
+
+	/**
+	 * Returns a cursor over the signature records, in ascending order of
+	 * signature.
+	 */
+	public SignatureCursor signatures() {
+		ByteBuffer view = buffer.duplicate();
+		// through Buffer, as ByteBuffer only overrides position(int) since Java 9
+		((Buffer) view).position(signaturesStart);
+		return new SignatureCursor(view, signatureCount);
+	}
+
+	/**
+	 * Returns a cursor over the per-test records.
+	 */
+	public TestCursor tests() throws IOException {
+		SignatureCursor signatures = signatures();
+		while (signatures.next()) {
+			// skip to the end of the signature section
+		}
+		ByteBuffer view = signatures.view;
+		try {
+			return new TestCursor(view, view.getInt());
+		} catch (BufferUnderflowException e) {
+			throw new IOException("truncated coverage report", e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+	static String readString(ByteBuffer view) throws IOException {
+		try {
+			int length = view.getInt();
+			if (length < 0 || length > view.remaining()) {
+				throw new IOException("invalid string length " + length);
+			}
+			byte[] bytes = new byte[length];
+			view.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("truncated coverage report", e);
+		}
+	}
+
+	private static void skipSet(ByteBuffer view) throws IOException {
+		try {
+			int length = view.getInt();
+			if (length < 0 || length > view.remaining() / 8) {
+				throw new IOException("invalid word count " + length);
+			}
+			((Buffer) view).position(view.position() + length * 8);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("truncated coverage report", e);
+		}
+	}
+
+	/**
+	 * Iterates the signature records. Call {@link #next()} before reading
+	 * the first record.
+	 */
+	public static class SignatureCursor {
+
+		private final ByteBuffer view;
+		private int remaining;
+
+		private String signature;
+		private ByteBuffer record;
+
+		SignatureCursor(ByteBuffer view, int count) {
+			this.view = view;
+			this.remaining = count;
+		}
+
+		/**
+		 * Moves to the next record.
+		 * 
+		 * @return false if there are no more records
+		 */
+		public boolean next() throws IOException {
+			if (remaining == 0) {
+				signature = null;
+				record = null;
+				return false;
+			}
+			remaining--;
+
+			signature = readString(view);
+			int start = view.position();
+			for (int i = 0; i < 6; i++) {
+				skipSet(view);
+			}
+			ByteBuffer slice = view.duplicate();
+			((Buffer) slice).position(start).limit(view.position());
+			record = slice.slice();
+			return true;
+		}
+
+		public String getSignature() {
+			return signature;
+		}
+
+		/**
+		 * Returns whether the current records of the two cursors carry the
+		 * same sets, comparing their encoded bytes without decoding them.
+		 */
+		public boolean sameSetsAs(SignatureCursor other) {
+			return record.equals(other.record);
+		}
+
+		public CoverageSet getExpectedValidECs() throws IOException {
+			return set(0);
+		}
+
+		public CoverageSet getExpectedInvalidECs() throws IOException {
+			return set(1);
+		}
+
+		public CoverageSet getExpectedBoundaries() throws IOException {
+			return set(2);
+		}
+
+		public CoverageSet getCoveredValidECs() throws IOException {
+			return set(3);
+		}
+
+		public CoverageSet getCoveredInvalidECs() throws IOException {
+			return set(4);
+		}
+
+		public CoverageSet getCoveredBoundaries() throws IOException {
+			return set(5);
+		}
+
+		private CoverageSet set(int index) throws IOException {
+			if (null == record) {
+				throw new NoSuchElementException();
+			}
+			ByteBuffer setView = record.duplicate();
+			for (int i = 0; i < index; i++) {
+				skipSet(setView);
+			}
+			return CoverageSet.readFrom(setView);
+		}
+
+	}
+
+	/**
+	 * Iterates the per-test records. Call {@link #next()} before reading the
+	 * first record.
+	 */
+	public static class TestCursor {
+
+		private final ByteBuffer view;
+		private int remaining;
+
+		private String test;
+		private String signature;
+		private CoverageSet validECs;
+		private CoverageSet invalidECs;
+		private CoverageSet boundaries;
+
+		TestCursor(ByteBuffer view, int count) {
+			this.view = view;
+			this.remaining = count;
+		}
+
+		/**
+		 * Moves to the next record.
+		 * 
+		 * @return false if there are no more records
+		 */
+		public boolean next() throws IOException {
+			if (remaining == 0) {
+				return false;
+			}
+			remaining--;
+
+			test = readString(view);
+			signature = readString(view);
+			validECs = CoverageSet.readFrom(view);
+			invalidECs = CoverageSet.readFrom(view);
+			boundaries = CoverageSet.readFrom(view);
+			return true;
+		}
+
+		public String getTest() {
+			return test;
+		}
+
+		public String getSignature() {
+			return signature;
+		}
+
+		public CoverageSet getValidECs() {
+			return validECs;
+		}
+
+		public CoverageSet getInvalidECs() {
+			return invalidECs;
+		}
+
+		public CoverageSet getBoundaries() {
+			return boundaries;
+		}
+
+	}
+
+}
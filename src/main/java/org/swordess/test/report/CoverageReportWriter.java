@@ -0,0 +1,122 @@
+package org.swordess.test.report;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.swordess.test.model.CoverageIndex;
+import org.swordess.test.model.CoverageIndex.CoverageIndexBuilder;
+import org.swordess.test.model.CoverageSet;
+import org.swordess.test.model.TestCaseDescriptor;
+import org.swordess.test.model.TestUnitDescriptor;
+
+/**
+ * Accumulates the coverage of several test classes and writes it as one
+ * binary report.
+ * 
+ * @see CoverageReportFormat
+ */
+public class CoverageReportWriter {
+
+	private final CoverageIndexBuilder expectedUnits = new CoverageIndexBuilder();
+	private final CoverageIndexBuilder coveredUnits = new CoverageIndexBuilder();
+	private final List<String> testNames = new ArrayList<>();
+	private final List<TestCaseDescriptor> testCases = new ArrayList<>();
+
+	/**
+	 * Adds the coverage of one test class.
+	 * 
+	 * @param className
+	 *            name of the test class
+	 * @param expected
+	 *            units analysed by the class
+	 * @param covered
+	 *            test cases which have covered something
+	 */
+	public synchronized void add(String className, Collection<TestUnitDescriptor> expected,
+			Collection<TestCaseDescriptor> covered) {
+		for (TestUnitDescriptor unit : expected) {
+			expectedUnits.add(unit);
+		}
+		for (TestCaseDescriptor testCase : covered) {
+			coveredUnits.add(testCase);
+			testNames.add(className + "#" + testCase.getTestMethodName());
+			testCases.add(testCase);
+		}
+	}
+
+	public synchronized void writeTo(File file) throws IOException {
+		CoverageIndex expectedIndex = expectedUnits.build();
+		CoverageIndex coveredIndex = coveredUnits.build();
+
+		Map<String, TestUnitDescriptor[]> signatureToUnits = new TreeMap<>();
+		for (TestUnitDescriptor unit : expectedIndex.getTestUnitDescriptors()) {
+			unitsOf(signatureToUnits, unit.getMethodSignature())[0] = unit;
+		}
+		for (TestUnitDescriptor unit : coveredIndex.getTestUnitDescriptors()) {
+			unitsOf(signatureToUnits, unit.getMethodSignature())[1] = unit;
+		}
+
+		File parent = file.getAbsoluteFile().getParentFile();
+		if (null != parent) {
+			parent.mkdirs();
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(CoverageReportFormat.MAGIC);
+			out.writeShort(CoverageReportFormat.VERSION);
+
+			out.writeInt(signatureToUnits.size());
+			for (Map.Entry<String, TestUnitDescriptor[]> entry : signatureToUnits.entrySet()) {
+				writeString(out, entry.getKey());
+				writeSets(out, entry.getValue()[0]);
+				writeSets(out, entry.getValue()[1]);
+			}
+
+			out.writeInt(testCases.size());
+			for (int i = 0; i < testCases.size(); i++) {
+				TestCaseDescriptor testCase = testCases.get(i);
+				writeString(out, testNames.get(i));
+				writeString(out, testCase.getMethodSignature());
+				testCase.getValidECs().writeTo(out);
+				testCase.getInvalidECs().writeTo(out);
+				testCase.getBoundaries().writeTo(out);
+			}
+		}
+	}
+
+	private static TestUnitDescriptor[] unitsOf(Map<String, TestUnitDescriptor[]> signatureToUnits, String signature) {
+		TestUnitDescriptor[] units = signatureToUnits.get(signature);
+		if (null == units) {
+			units = new TestUnitDescriptor[2];
+			signatureToUnits.put(signature, units);
+		}
+		return units;
+	}
+
+	private static void writeSets(DataOutputStream out, TestUnitDescriptor unit) throws IOException {
+		if (null == unit) {
+			CoverageSet.EMPTY.writeTo(out);
+			CoverageSet.EMPTY.writeTo(out);
+			CoverageSet.EMPTY.writeTo(out);
+		} else {
+			unit.getValidECs().writeTo(out);
+			unit.getInvalidECs().writeTo(out);
+			unit.getBoundaries().writeTo(out);
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+}
@@ -0,0 +1,61 @@
+package org.swordess.test.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+
+import org.swordess.test.model.TestCaseDescriptor;
+import org.swordess.test.model.TestUnitDescriptor;
+
+/**
+ * Collects the coverage of every test class checked in this JVM into one
+ * report, which is written when the JVM shuts down.
+ * <p>
+ * Reporting is enabled by setting the {@value #REPORT_FILE_PROPERTY} system
+ * property to the path of the report file.
+ */
+public class CoverageReports {
+
+	public static final String REPORT_FILE_PROPERTY = "swordess.test.report";
+
+	private static CoverageReportWriter writer;
+
+	/**
+	 * Adds the coverage of one test class to the report of this run, if
+	 * reporting is enabled.
+	 */
+	public static void record(String className, Collection<TestUnitDescriptor> expected,
+			Collection<TestCaseDescriptor> covered) {
+		CoverageReportWriter writer = writer();
+		if (null != writer) {
+			writer.add(className, expected, covered);
+		}
+	}
+
+	private static synchronized CoverageReportWriter writer() {
+		if (null == writer) {
+			String path = System.getProperty(REPORT_FILE_PROPERTY);
+			if (null == path || path.trim().isEmpty()) {
+				return null;
+			}
+			final File reportFile = new File(path);
+			final CoverageReportWriter newWriter = new CoverageReportWriter();
+			Runtime.getRuntime().addShutdownHook(new Thread("coverage-report-writer") {
+				@Override
+				public void run() {
+					try {
+						newWriter.writeTo(reportFile);
+					} catch (IOException e) {
+						System.err.println("cannot write coverage report " + reportFile + ": " + e);
+					}
+				}
+			});
+			writer = newWriter;
+		}
+		return writer;
+	}
+
+	private CoverageReports() {
+	}
+
+}
@@ -0,0 +1,235 @@
+package org.swordess.test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runner.notification.Failure;
+import org.junit.runners.Suite.SuiteClasses;
+import org.swordess.test.EquivalentCondition.Condition;
+import org.swordess.test.TestCaseAnalysis.MethodAnalysis;
+import org.swordess.test.model.CoverageShards;
+import org.swordess.test.model.DescriptorCache;
+
+public class CoverCheckerTest {
+
+	@Before
+	public void setUp() {
+		Uncoverable.RUNS.set(0);
+	}
+
+	@Test
+	public void creditPassingMethodsOnly() {
+		Result result = JUnitCore.runClasses(FailingCovers.class);
+		assertEquals(3, result.getRunCount());
+		// the failed method and the class
+		assertEquals(2, result.getFailureCount());
+
+		Failure uncovered = failureOf(result, UncoveredCasesException.class);
+		// the EC of the failed method and the one of the skipped method
+		assertTrue(uncovered.getMessage(), uncovered.getMessage().contains("validECs: [2, 3]"));
+	}
+
+	@Test
+	public void preflightBeforeAnyMethod() {
+		System.setProperty(CoverChecker.PREFLIGHT_PROPERTY, "true");
+		try {
+			Result result = JUnitCore.runClasses(Uncoverable.class);
+			assertEquals(0, Uncoverable.RUNS.get());
+			assertEquals(1, result.getFailureCount());
+			assertTrue(result.getFailures().get(0).getException() instanceof UncoveredCasesException);
+		} finally {
+			System.clearProperty(CoverChecker.PREFLIGHT_PROPERTY);
+		}
+	}
+
+	@Test
+	public void skipPreflightUnderSuite() {
+		System.setProperty(CoverChecker.PREFLIGHT_PROPERTY, "true");
+		try {
+			// the suite covers what the class alone cannot
+			Result result = JUnitCore.runClasses(UncoverableSuite.class);
+			assertTrue(result.getFailures().toString(), result.wasSuccessful());
+			assertEquals(1, Uncoverable.RUNS.get());
+		} finally {
+			System.clearProperty(CoverChecker.PREFLIGHT_PROPERTY);
+		}
+	}
+
+	@Test
+	public void skipPreflightUnderShards() {
+		System.setProperty(CoverChecker.PREFLIGHT_PROPERTY, "true");
+		System.setProperty(CoverageShards.SHARD_DIR_PROPERTY, "target/cover-checker-test/" + System.nanoTime());
+		System.setProperty(CoverageShards.SHARD_RUN_PROPERTY, "run");
+		try {
+			// checked once the shards are merged
+			Result result = JUnitCore.runClasses(Uncoverable.class);
+			assertTrue(result.getFailures().toString(), result.wasSuccessful());
+			assertEquals(1, Uncoverable.RUNS.get());
+		} finally {
+			System.clearProperty(CoverChecker.PREFLIGHT_PROPERTY);
+			System.clearProperty(CoverageShards.SHARD_DIR_PROPERTY);
+			System.clearProperty(CoverageShards.SHARD_RUN_PROPERTY);
+		}
+	}
+
+	@Test
+	public void minimalSkipsRedundantCovers() {
+		File cacheDir = new File("target/cover-checker-test/" + System.nanoTime());
+		System.setProperty(CoverChecker.MINIMAL_PROPERTY, "true");
+		System.setProperty(DescriptorCache.CACHE_DIR_PROPERTY, cacheDir.getPath());
+		try {
+			Result result = JUnitCore.runClasses(Redundant.class);
+			assertTrue(result.getFailures().toString(), result.wasSuccessful());
+			assertEquals(1, result.getRunCount());
+			assertEquals(1, result.getIgnoreCount());
+			assertTrue(new File(cacheDir, Redundant.class.getName() + ".runtimes").isFile());
+		} finally {
+			System.clearProperty(CoverChecker.MINIMAL_PROPERTY);
+			System.clearProperty(DescriptorCache.CACHE_DIR_PROPERTY);
+		}
+	}
+
+	@Test
+	public void minimalIgnoredUnderSuite() {
+		System.setProperty(CoverChecker.MINIMAL_PROPERTY, "true");
+		try {
+			// the child without analysis covers the rest of the analysis
+			Result result = JUnitCore.runClasses(UncoverableSuite.class);
+			assertTrue(result.getFailures().toString(), result.wasSuccessful());
+			assertEquals(0, result.getIgnoreCount());
+		} finally {
+			System.clearProperty(CoverChecker.MINIMAL_PROPERTY);
+		}
+	}
+
+	@Test
+	public void recordRuntimesOnlyWhenAsked() {
+		File cacheDir = new File("target/cover-checker-test/" + System.nanoTime());
+		File runtimes = new File(cacheDir, Redundant.class.getName() + ".runtimes");
+		System.setProperty(DescriptorCache.CACHE_DIR_PROPERTY, cacheDir.getPath());
+		try {
+			JUnitCore.runClasses(Redundant.class);
+			assertFalse(runtimes.exists());
+
+			System.setProperty(CoverChecker.RECORD_RUNTIMES_PROPERTY, "true");
+			Result result = JUnitCore.runClasses(Redundant.class);
+			assertEquals(2, result.getRunCount());
+			assertTrue(runtimes.isFile());
+		} finally {
+			System.clearProperty(CoverChecker.RECORD_RUNTIMES_PROPERTY);
+			System.clearProperty(DescriptorCache.CACHE_DIR_PROPERTY);
+		}
+	}
+
+	private static Failure failureOf(Result result, Class<? extends Throwable> exceptionType) {
+		for (Failure failure : result.getFailures()) {
+			if (exceptionType.isInstance(failure.getException())) {
+				return failure;
+			}
+		}
+		throw new AssertionError("no " + exceptionType.getSimpleName() + " in " + result.getFailures());
+	}
+
+	@RunWith(CoverChecker.class)
+	@TestCaseAnalysis(@MethodAnalysis(
+		signature = "m()",
+		equivalentConditions = @EquivalentCondition(
+			name  = "x",
+			valid = {
+				@Condition(nbr = 1, desc = "passed"),
+				@Condition(nbr = 2, desc = "failed"),
+				@Condition(nbr = 3, desc = "skipped")
+			}
+		)
+	))
+	public static class FailingCovers {
+
+		@Test
+		@Cover(methodSignature = "m()", validECs = 1)
+		public void passed() {
+		}
+
+		@Test
+		@Cover(methodSignature = "m()", validECs = 2)
+		public void failed() {
+			throw new AssertionError("failed on purpose");
+		}
+
+		@Test
+		@Cover(methodSignature = "m()", validECs = 3)
+		public void skipped() {
+			Assume.assumeTrue(false);
+		}
+
+	}
+
+	@RunWith(CoverChecker.class)
+	@TestCaseAnalysis(@MethodAnalysis(
+		signature = "m()",
+		equivalentConditions = @EquivalentCondition(
+			name  = "x",
+			valid = {
+				@Condition(nbr = 1, desc = "covered here"),
+				@Condition(nbr = 2, desc = "covered elsewhere")
+			}
+		)
+	))
+	public static class Uncoverable {
+
+		static final AtomicInteger RUNS = new AtomicInteger();
+
+		@Test
+		@Cover(methodSignature = "m()", validECs = 1)
+		public void covered() {
+			RUNS.incrementAndGet();
+		}
+
+	}
+
+	public static class CoveringElsewhere {
+
+		@Test
+		@Cover(methodSignature = "m()", validECs = 2)
+		public void covered() {
+		}
+
+	}
+
+	@RunWith(CoverChecker.class)
+	@TestCaseAnalysis(@MethodAnalysis(
+		signature = "m()",
+		equivalentConditions = @EquivalentCondition(
+			name  = "x",
+			valid = @Condition(nbr = 1, desc = "covered twice")
+		)
+	))
+	public static class Redundant {
+
+		@Test
+		@Cover(methodSignature = "m()", validECs = 1)
+		public void once() {
+		}
+
+		@Test
+		@Cover(methodSignature = "m()", validECs = 1)
+		public void twice() {
+		}
+
+	}
+
+	@RunWith(CoverageSuite.class)
+	@SuiteClasses({ Uncoverable.class, CoveringElsewhere.class })
+	public static class UncoverableSuite {
+	}
+
+}
@@ -0,0 +1,85 @@
+package org.swordess.test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.swordess.test.CoverageProfile.ConditionCost;
+import org.swordess.test.CoverageProfile.MethodCost;
+import org.swordess.test.model.CoverageSet;
+import org.swordess.test.model.TestCaseDescriptor;
+import org.swordess.test.model.TestCaseDescriptor.TestCaseDescriptorBuilder;
+
+public class CoverageProfileTest {
+
+	private CoverageProfile profile;
+
+	@Before
+	public void setUp() {
+		Map<String, Long> runtimes = new HashMap<>();
+		runtimes.put("both", 100L);
+		runtimes.put("second", 50L);
+		runtimes.put("slower", 80L);
+		Map<String, Long> cpuTimes = new HashMap<>();
+		cpuTimes.put("both", 10L);
+
+		profile = new CoverageProfile("p.SampleTest", Arrays.asList(
+				testCase("both", CoverageSet.of(1, 2), CoverageSet.EMPTY),
+				testCase("second", CoverageSet.of(2), CoverageSet.EMPTY),
+				testCase("slower", CoverageSet.of(2), CoverageSet.EMPTY),
+				// without runtime, e.g. not run by the recorder
+				testCase("unmeasured", CoverageSet.EMPTY, CoverageSet.of(1))), runtimes, cpuTimes);
+	}
+
+	@Test
+	public void splitCostEvenly() {
+		List<ConditionCost> costs = profile.getConditionCosts();
+		assertEquals(2, costs.size());
+
+		assertEquals("m() valid EC 2", costs.get(0).condition);
+		assertEquals(50 + 50 + 80, costs.get(0).nanos);
+		assertEquals(5, costs.get(0).cpuNanos);
+		assertEquals(3, costs.get(0).coveringMethods);
+
+		assertEquals("m() valid EC 1", costs.get(1).condition);
+		assertEquals(50, costs.get(1).nanos);
+		assertEquals(1, costs.get(1).coveringMethods);
+	}
+
+	@Test
+	public void redundantMethods() {
+		List<MethodCost> redundant = profile.getRedundantMethodCosts();
+		assertEquals(2, redundant.size());
+		// the slowest first, and not the only method covering valid EC 1
+		assertEquals("slower", redundant.get(0).testCase.getTestMethodName());
+		assertEquals("second", redundant.get(1).testCase.getTestMethodName());
+	}
+
+	@Test
+	public void writeTo() throws IOException {
+		File file = new File("target/coverage-profile-test/" + System.nanoTime() + "/p.SampleTest.txt");
+		profile.writeTo(file);
+
+		String text = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		assertTrue(text, text.contains("# 3 covering methods"));
+		assertTrue(text, text.contains("m() valid EC 1"));
+		assertTrue(text, text.contains("slower"));
+	}
+
+	private static TestCaseDescriptor testCase(String methodName, CoverageSet validECs, CoverageSet boundaries) {
+		TestCaseDescriptorBuilder builder = new TestCaseDescriptorBuilder(methodName, "m()");
+		builder.validECs(validECs).invalidECs(CoverageSet.EMPTY).boundaries(boundaries);
+		return builder.build();
+	}
+
+}
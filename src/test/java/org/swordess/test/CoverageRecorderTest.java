@@ -0,0 +1,87 @@
+package org.swordess.test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.internal.AssumptionViolatedException;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.swordess.test.model.CoverageSet;
+import org.swordess.test.model.TestCaseDescriptor;
+import org.swordess.test.model.TestCaseDescriptor.TestCaseDescriptorBuilder;
+
+public class CoverageRecorderTest {
+
+	private CoverageRecorder recorder;
+
+	@Before
+	public void setUp() {
+		recorder = new CoverageRecorder(getClass(), Arrays.asList(testCase("passed"), testCase("failed"),
+				testCase("assumptionFailed"), testCase("unfinished")), false);
+	}
+
+	@Test
+	public void creditPassedMethodsOnly() {
+		run("passed", null);
+		run("failed", new AssertionError("failed"));
+		run("assumptionFailed", new AssumptionViolatedException("skipped"));
+		recorder.testStarted(describe("unfinished"));
+
+		assertEquals(Arrays.asList("passed"), methodNamesOf(recorder.getCoveredTestCaseDescriptors()));
+		assertEquals(3, recorder.getRuntimes().size());
+		assertTrue(recorder.getCpuTimes().isEmpty());
+	}
+
+	@Test
+	public void ignoreMethodsOfOtherClasses() {
+		Description other = Description.createTestDescription(String.class, "passed");
+		recorder.testStarted(other);
+		recorder.testFinished(other);
+
+		assertTrue(recorder.getCoveredTestCaseDescriptors().isEmpty());
+	}
+
+	@Test
+	public void creditRerunAfterFailure() {
+		run("failed", new AssertionError("failed"));
+		run("failed", null);
+
+		assertEquals(Arrays.asList("failed"), methodNamesOf(recorder.getCoveredTestCaseDescriptors()));
+	}
+
+	private void run(String methodName, Throwable failure) {
+		Description description = describe(methodName);
+		recorder.testStarted(description);
+		if (failure instanceof AssumptionViolatedException) {
+			recorder.testAssumptionFailure(new Failure(description, failure));
+		} else if (null != failure) {
+			recorder.testFailure(new Failure(description, failure));
+		}
+		recorder.testFinished(description);
+	}
+
+	private Description describe(String methodName) {
+		return Description.createTestDescription(getClass(), methodName);
+	}
+
+	private static TestCaseDescriptor testCase(String methodName) {
+		TestCaseDescriptorBuilder builder = new TestCaseDescriptorBuilder(methodName, "m()");
+		builder.validECs(CoverageSet.of(1)).invalidECs(CoverageSet.EMPTY).boundaries(CoverageSet.EMPTY);
+		return builder.build();
+	}
+
+	private static List<String> methodNamesOf(List<TestCaseDescriptor> descriptors) {
+		List<String> names = new ArrayList<>();
+		for (TestCaseDescriptor descriptor : descriptors) {
+			names.add(descriptor.getTestMethodName());
+		}
+		return names;
+	}
+
+}
@@ -0,0 +1,87 @@
+package org.swordess.test;
+
+import static junit.framework.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.swordess.test.EquivalentCondition.Condition;
+import org.swordess.test.TestCaseAnalysis.MethodAnalysis;
+import org.swordess.test.model.CoverageShards;
+
+public class CoverageShardMergerTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() {
+		dir = new File("target/coverage-shard-merger-test/" + System.nanoTime());
+		System.setProperty(CoverageShards.SHARD_DIR_PROPERTY, dir.getPath());
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(CoverageShards.SHARD_DIR_PROPERTY);
+		System.clearProperty(CoverageShards.SHARD_RUN_PROPERTY);
+	}
+
+	@Test
+	public void checkAcrossClasses() throws Exception {
+		System.setProperty(CoverageShards.SHARD_RUN_PROPERTY, "covered");
+		// neither class is checked on its own
+		Result result = JUnitCore.runClasses(Analysed.class, CoveringInvalid.class);
+		assertTrue(result.getFailures().toString(), result.wasSuccessful());
+
+		CoverageShardMerger.check(dir, "covered");
+	}
+
+	@Test
+	public void failUncoveredRun() throws IOException {
+		System.setProperty(CoverageShards.SHARD_RUN_PROPERTY, "covered");
+		JUnitCore.runClasses(CoveringInvalid.class);
+		System.setProperty(CoverageShards.SHARD_RUN_PROPERTY, "uncovered");
+		JUnitCore.runClasses(Analysed.class);
+
+		try {
+			CoverageShardMerger.check(dir, "uncovered");
+			throw new AssertionError("the covering shard of another run was merged");
+		} catch (UncoveredCasesException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("invalidECs: [2]"));
+		}
+	}
+
+	@RunWith(CoverChecker.class)
+	@TestCaseAnalysis(@MethodAnalysis(
+		signature = "m()",
+		equivalentConditions = @EquivalentCondition(
+			name    = "x",
+			valid   = @Condition(nbr = 1, desc = "valid"),
+			invalid = @Condition(nbr = 2, desc = "invalid")
+		)
+	))
+	public static class Analysed {
+
+		@Test
+		@Cover(methodSignature = "m()", validECs = 1)
+		public void valid() {
+		}
+
+	}
+
+	@RunWith(CoverChecker.class)
+	public static class CoveringInvalid {
+
+		@Test
+		@Cover(methodSignature = "m()", invalidECs = 2)
+		public void invalid() {
+		}
+
+	}
+
+}
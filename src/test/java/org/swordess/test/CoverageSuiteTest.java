@@ -0,0 +1,67 @@
+package org.swordess.test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite.SuiteClasses;
+import org.swordess.test.EquivalentCondition.Condition;
+import org.swordess.test.TestCaseAnalysis.MethodAnalysis;
+
+public class CoverageSuiteTest {
+
+	@Test
+	public void checkCoverageAcrossChildren() {
+		Result result = JUnitCore.runClasses(CoveredSuite.class);
+		assertTrue(result.getFailures().toString(), result.wasSuccessful());
+		assertEquals(2, result.getRunCount());
+	}
+
+	@Test
+	public void failUncoveredSuite() {
+		Result result = JUnitCore.runClasses(UncoveredSuite.class);
+		assertEquals(1, result.getFailureCount());
+		assertTrue(result.getFailures().get(0).getException() instanceof UncoveredCasesException);
+		assertTrue(result.getFailures().get(0).getMessage().contains("invalidECs: [2]"));
+	}
+
+	@TestCaseAnalysis(@MethodAnalysis(
+		signature = "m()",
+		equivalentConditions = @EquivalentCondition(
+			name    = "x",
+			valid   = @Condition(nbr = 1, desc = "valid"),
+			invalid = @Condition(nbr = 2, desc = "invalid")
+		)
+	))
+	public static class Analysed {
+
+		@Test
+		@Cover(methodSignature = "m()", validECs = 1)
+		public void valid() {
+		}
+
+	}
+
+	public static class CoveringInvalid {
+
+		@Test
+		@Cover(methodSignature = "m()", invalidECs = 2)
+		public void invalid() {
+		}
+
+	}
+
+	@RunWith(CoverageSuite.class)
+	@SuiteClasses({ Analysed.class, CoveringInvalid.class })
+	public static class CoveredSuite {
+	}
+
+	@RunWith(CoverageSuite.class)
+	@SuiteClasses(Analysed.class)
+	public static class UncoveredSuite {
+	}
+
+}
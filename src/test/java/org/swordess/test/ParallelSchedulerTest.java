@@ -0,0 +1,89 @@
+package org.swordess.test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+
+public class ParallelSchedulerTest {
+
+	@Test
+	public void runChildrenConcurrently() {
+		ConcurrentMethods.finished.set(0);
+		Result result = JUnitCore.runClasses(ConcurrentMethods.class);
+		assertTrue(result.getFailures().toString(), result.wasSuccessful());
+		// the run only returns once every method has finished
+		assertEquals(2, ConcurrentMethods.finished.get());
+	}
+
+	@Test
+	public void waitForChildrenWhenInterrupted() throws InterruptedException {
+		final ParallelScheduler scheduler = new ParallelScheduler("interrupted", 1);
+		final CountDownLatch childStarted = new CountDownLatch(1);
+		final AtomicBoolean childFinished = new AtomicBoolean();
+		scheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				childStarted.countDown();
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+				while (System.nanoTime() < deadline) {
+					// busy so the child cannot be cut short by an interrupt
+				}
+				childFinished.set(true);
+			}
+		});
+		childStarted.await();
+
+		final AtomicBoolean finishedBeforeChild = new AtomicBoolean();
+		final AtomicBoolean interruptRestored = new AtomicBoolean();
+		Thread waiter = new Thread() {
+			@Override
+			public void run() {
+				interrupt();
+				scheduler.finished();
+				finishedBeforeChild.set(!childFinished.get());
+				interruptRestored.set(isInterrupted());
+			}
+		};
+		waiter.start();
+		waiter.join();
+
+		assertFalse(finishedBeforeChild.get());
+		assertTrue(interruptRestored.get());
+	}
+
+	@RunWith(CoverChecker.class)
+	@Parallel(threads = 2)
+	public static class ConcurrentMethods {
+
+		static final CyclicBarrier barrier = new CyclicBarrier(2);
+		static final AtomicInteger finished = new AtomicInteger();
+
+		@Test
+		public void first() throws Exception {
+			barrier.await(10, TimeUnit.SECONDS);
+			Thread.sleep(100);
+			finished.incrementAndGet();
+		}
+
+		@Test
+		public void second() throws Exception {
+			// times out unless both methods run at the same time
+			barrier.await(10, TimeUnit.SECONDS);
+			Thread.sleep(100);
+			finished.incrementAndGet();
+		}
+
+	}
+
+}
@@ -0,0 +1,79 @@
+package org.swordess.test.model;
+
+import static junit.framework.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+import org.swordess.test.model.TestCaseDescriptor.TestCaseDescriptorBuilder;
+import org.swordess.test.model.TestUnitDescriptor.TestUnitDescriptorBuilder;
+
+public class CoverageRegistryTest {
+
+	@Test
+	public void mergeAcrossClasses() {
+		CoverageRegistry registry = new CoverageRegistry();
+		// one class analyses and covers part of m(), another covers the rest
+		registry.register(Arrays.asList(unit("m()", CoverageSet.of(1, 2), CoverageSet.of(1))),
+				Arrays.asList(testCase("a", "m()", CoverageSet.of(1), CoverageSet.EMPTY)));
+		registry.register(Collections.<TestUnitDescriptor>emptyList(),
+				Arrays.asList(testCase("b", "m()", CoverageSet.of(2), CoverageSet.of(1)),
+						testCase("c", "n()", CoverageSet.of(3), CoverageSet.EMPTY)));
+		// a third class analyses more of m()
+		registry.register(Arrays.asList(unit("m()", CoverageSet.of(3), CoverageSet.EMPTY)),
+				Collections.<TestCaseDescriptor>emptyList());
+
+		List<TestUnitDescriptor> expected = registry.getExpectedTestUnitsDescriptors();
+		assertEquals(1, expected.size());
+		assertEquals(CoverageSet.of(1, 2, 3), expected.get(0).getValidECs());
+		assertEquals(CoverageSet.of(1), expected.get(0).getBoundaries());
+
+		CoverageIndex merged = registry.merge();
+		assertEquals(2, merged.size());
+		assertEquals(CoverageSet.of(1, 2), merged.get("m()").getValidECs());
+		assertEquals(CoverageSet.of(1), merged.get("m()").getBoundaries());
+		assertEquals(CoverageSet.of(3), merged.get("n()").getValidECs());
+	}
+
+	@Test
+	public void mergeLargeRegistryInParallel() {
+		CoverageRegistry registry = new CoverageRegistry();
+		List<TestCaseDescriptor> covered = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			covered.add(testCase("t" + i, "m" + (i % 3) + "()", CoverageSet.of(i % 500), CoverageSet.EMPTY));
+		}
+		registry.register(Collections.<TestUnitDescriptor>emptyList(), covered);
+
+		CoverageIndex merged = registry.merge();
+		assertEquals(3, merged.size());
+		assertEquals(500, merged.get("m0()").getValidECs().size());
+
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			CoverageIndex mergedOnPool = registry.merge(pool);
+			for (String signature : Arrays.asList("m0()", "m1()", "m2()")) {
+				assertEquals(merged.get(signature).getValidECs(), mergedOnPool.get(signature).getValidECs());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static TestUnitDescriptor unit(String signature, CoverageSet validECs, CoverageSet boundaries) {
+		TestUnitDescriptorBuilder builder = new TestUnitDescriptorBuilder(signature);
+		builder.validECs(validECs).invalidECs(CoverageSet.EMPTY).boundaries(boundaries);
+		return builder.build();
+	}
+
+	private static TestCaseDescriptor testCase(String methodName, String signature, CoverageSet validECs,
+			CoverageSet boundaries) {
+		TestCaseDescriptorBuilder builder = new TestCaseDescriptorBuilder(methodName, signature);
+		builder.validECs(validECs).invalidECs(CoverageSet.EMPTY).boundaries(boundaries);
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,127 @@
+package org.swordess.test.model;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.swordess.test.model.CoverageSet.CoverageSetBuilder;
+
+public class CoverageSetTest {
+
+	@Test
+	public void of() {
+		CoverageSet set = CoverageSet.of(3, 1, 64, 1);
+		assertEquals(3, set.size());
+		assertTrue(set.contains(1));
+		assertTrue(set.contains(64));
+		assertFalse(set.contains(2));
+		assertFalse(set.contains(-1));
+		assertFalse(set.contains(1000));
+		assertTrue(Arrays.equals(new int[] { 1, 3, 64 }, set.toArray()));
+		assertEquals("[1, 3, 64]", set.toString());
+
+		assertSame(CoverageSet.EMPTY, CoverageSet.of());
+		assertSame(CoverageSet.EMPTY, CoverageSet.of((int[]) null));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void ofNegative() {
+		CoverageSet.of(1, -1);
+	}
+
+	@Test
+	public void union() {
+		CoverageSet small = CoverageSet.of(1, 2);
+		CoverageSet large = CoverageSet.of(2, 130);
+		assertEquals(CoverageSet.of(1, 2, 130), small.union(large));
+		assertEquals(CoverageSet.of(1, 2, 130), large.union(small));
+		assertSame(large, large.union(CoverageSet.EMPTY));
+	}
+
+	@Test
+	public void difference() {
+		CoverageSet set = CoverageSet.of(1, 2, 130);
+		assertEquals(CoverageSet.of(1, 130), set.difference(CoverageSet.of(2)));
+		assertEquals(CoverageSet.of(2), set.difference(CoverageSet.of(1, 130, 200)));
+		assertSame(CoverageSet.EMPTY, set.difference(set));
+		assertEquals(set, set.difference(CoverageSet.EMPTY));
+
+		// the trailing empty words are trimmed
+		CoverageSet difference = set.difference(CoverageSet.of(130));
+		assertEquals(CoverageSet.of(1, 2), difference);
+		assertEquals(CoverageSet.of(1, 2).hashCode(), difference.hashCode());
+	}
+
+	@Test
+	public void intersectionSize() {
+		assertEquals(2, CoverageSet.of(1, 2, 130).intersectionSize(CoverageSet.of(2, 3, 130, 200)));
+		assertEquals(0, CoverageSet.of(1).intersectionSize(CoverageSet.EMPTY));
+	}
+
+	@Test
+	public void nextSetBit() {
+		CoverageSet set = CoverageSet.of(0, 63, 64, 200);
+		assertEquals(0, set.nextSetBit(-5));
+		assertEquals(63, set.nextSetBit(1));
+		assertEquals(64, set.nextSetBit(64));
+		assertEquals(200, set.nextSetBit(65));
+		assertEquals(-1, set.nextSetBit(201));
+		assertEquals(-1, set.nextSetBit(10000));
+		assertEquals(-1, CoverageSet.EMPTY.nextSetBit(0));
+	}
+
+	@Test
+	public void equalsAcrossWordLengths() {
+		CoverageSet trimmed = CoverageSet.of(5);
+		CoverageSet untrimmed = CoverageSet.of(5, 300).difference(CoverageSet.of(300));
+		assertEquals(trimmed, untrimmed);
+		assertEquals(untrimmed, trimmed);
+		assertEquals(trimmed.hashCode(), untrimmed.hashCode());
+		assertFalse(trimmed.equals(CoverageSet.of(5, 300)));
+		assertFalse(CoverageSet.of(5, 300).equals(trimmed));
+		assertTrue(CoverageSet.EMPTY.isEmpty());
+	}
+
+	@Test
+	public void builderTrimsTrailingWords() {
+		CoverageSetBuilder builder = new CoverageSetBuilder();
+		builder.addAll(CoverageSet.EMPTY);
+		assertSame(CoverageSet.EMPTY, builder.build());
+
+		builder.add(3).addAll(CoverageSet.of(70));
+		CoverageSet set = builder.build();
+		assertEquals(CoverageSet.of(3, 70), set);
+
+		// the words of a built set are not shared with the builder
+		builder.add(4);
+		assertEquals(CoverageSet.of(3, 70), set);
+		assertEquals(CoverageSet.of(3, 4, 70), builder.build());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void builderAddNegative() {
+		new CoverageSetBuilder().add(-1);
+	}
+
+	@Test
+	public void writeToAndReadFrom() throws IOException {
+		CoverageSet set = CoverageSet.of(1, 64, 300);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		set.writeTo(new DataOutputStream(bytes));
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		assertEquals(set, CoverageSet.readFrom(in));
+		assertEquals(set, CoverageSet.readFrom(ByteBuffer.wrap(bytes.toByteArray())));
+	}
+
+}
@@ -0,0 +1,123 @@
+package org.swordess.test.model;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.swordess.test.model.TestCaseDescriptor.TestCaseDescriptorBuilder;
+import org.swordess.test.model.TestUnitDescriptor.TestUnitDescriptorBuilder;
+
+public class CoverageShardsTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() {
+		dir = new File("target/coverage-shards-test/" + System.nanoTime());
+		System.setProperty(CoverageShards.SHARD_DIR_PROPERTY, dir.getPath());
+		System.setProperty(CoverageShards.SHARD_RUN_PROPERTY, "run 1");
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(CoverageShards.SHARD_DIR_PROPERTY);
+		System.clearProperty(CoverageShards.SHARD_RUN_PROPERTY);
+	}
+
+	@Test
+	public void recordAndReadAll() throws IOException {
+		recordTwoClasses();
+
+		CoverageRegistry registry = new CoverageRegistry();
+		assertEquals(2, CoverageShards.readAll(dir, "run 1", registry));
+		assertEquals(1, registry.getExpectedTestUnitsDescriptors().size());
+		assertEquals(CoverageSet.of(1, 2), registry.merge().get("m()").getValidECs());
+	}
+
+	@Test
+	public void ignoreOtherRuns() throws IOException {
+		recordTwoClasses();
+		System.setProperty(CoverageShards.SHARD_RUN_PROPERTY, "run 2");
+		CoverageShards.record("p.LaterTest", Collections.<TestUnitDescriptor>emptyList(),
+				Arrays.asList(testCase(3)));
+
+		assertEquals(2, CoverageShards.readAll(dir, "run 1", new CoverageRegistry()));
+		assertEquals(1, CoverageShards.readAll(dir, "run 2", new CoverageRegistry()));
+	}
+
+	@Test
+	public void skipRecordCutShort() throws IOException {
+		recordTwoClasses();
+		File shard = shardOf("run 1");
+		long length = shard.length();
+
+		// a garbage length is taken for a record cut short rather than allocated
+		append(shard, Integer.MAX_VALUE);
+		assertEquals(2, CoverageShards.readAll(dir, "run 1", new CoverageRegistry()));
+
+		try (RandomAccessFile file = new RandomAccessFile(shard, "rw")) {
+			long secondRecord = 4 + file.readInt();
+			// within the second record, then within its length
+			for (long truncatedLength : new long[] { length - 1, secondRecord + 2 }) {
+				file.setLength(truncatedLength);
+				assertEquals(1, CoverageShards.readAll(dir, "run 1", new CoverageRegistry()));
+			}
+		}
+	}
+
+	@Test
+	public void rejectNegativeLength() throws IOException {
+		recordTwoClasses();
+		append(shardOf("run 1"), -1);
+
+		try {
+			CoverageShards.readAll(dir, "run 1", new CoverageRegistry());
+			fail();
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void recordWithoutRun() throws IOException {
+		System.clearProperty(CoverageShards.SHARD_RUN_PROPERTY);
+		recordTwoClasses();
+	}
+
+	private void recordTwoClasses() throws IOException {
+		TestUnitDescriptorBuilder unit = new TestUnitDescriptorBuilder("m()");
+		unit.validECs(CoverageSet.of(1, 2)).invalidECs(CoverageSet.EMPTY).boundaries(CoverageSet.EMPTY);
+		CoverageShards.record("p.AnalysedTest", Arrays.asList(unit.build()), Arrays.asList(testCase(1)));
+		CoverageShards.record("p.CoveringTest", Collections.<TestUnitDescriptor>emptyList(),
+				Arrays.asList(testCase(2)));
+	}
+
+	private File shardOf(String run) {
+		File[] shards = new File(dir, run.replace(' ', '_')).listFiles();
+		assertEquals(1, shards.length);
+		return shards[0];
+	}
+
+	private static void append(File shard, int length) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(shard, true))) {
+			out.writeInt(length);
+		}
+	}
+
+	private static TestCaseDescriptor testCase(int validEC) {
+		TestCaseDescriptorBuilder builder = new TestCaseDescriptorBuilder("covering" + validEC, "m()");
+		builder.validECs(CoverageSet.of(validEC)).invalidECs(CoverageSet.EMPTY).boundaries(CoverageSet.EMPTY);
+		return builder.build();
+	}
+
+}
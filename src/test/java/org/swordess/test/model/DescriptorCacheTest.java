@@ -0,0 +1,77 @@
+package org.swordess.test.model;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.swordess.test.model.TestCaseDescriptor.TestCaseDescriptorBuilder;
+
+public class DescriptorCacheTest {
+
+	private File dir;
+	private DescriptorCache cache;
+
+	@Before
+	public void setUp() {
+		dir = new File("target/descriptor-cache-test/" + System.nanoTime());
+		cache = new DescriptorCache(dir);
+	}
+
+	@Test
+	public void putAndGet() {
+		assertNull(cache.get(getClass()));
+
+		TestCaseDescriptorBuilder builder = new TestCaseDescriptorBuilder("putAndGet", "m()");
+		builder.validECs(CoverageSet.of(1)).invalidECs(CoverageSet.EMPTY).boundaries(CoverageSet.EMPTY);
+		cache.put(getClass(), new CoverageManifest(Collections.<TestUnitDescriptor>emptyList(),
+				Arrays.asList(builder.build())));
+
+		CoverageManifest manifest = cache.get(getClass());
+		assertNotNull(manifest);
+		assertEquals("putAndGet", manifest.getCoveredTestCaseDescriptors().get(0).getTestMethodName());
+	}
+
+	@Test
+	public void disabledByDefault() {
+		System.clearProperty(DescriptorCache.CACHE_DIR_PROPERTY);
+		assertNull(DescriptorCache.fromSystemProperty());
+		assertNull(DescriptorCache.dirFromSystemProperty());
+	}
+
+	@Test
+	public void missCorruptEntry() throws IOException {
+		cache.put(getClass(), new CoverageManifest(Collections.<TestUnitDescriptor>emptyList(),
+				Collections.<TestCaseDescriptor>emptyList()));
+		File entry = new File(dir, getClass().getName() + ".cache");
+		assertTrue(entry.isFile());
+
+		// an up-to-date hash followed by garbage counts
+		for (int garbage : new int[] { -1, Integer.MAX_VALUE }) {
+			try (DataOutputStream out = new DataOutputStream(new FileOutputStream(entry))) {
+				byte[] hash = CoverageManifest.classHashOf(getClass());
+				out.writeByte(hash.length);
+				out.write(hash);
+				out.writeInt(0x53574354);
+				out.writeShort(1);
+				out.writeInt(garbage);
+			}
+			assertNull(cache.get(getClass()));
+		}
+
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(entry))) {
+			out.writeByte(100);
+		}
+		assertNull(cache.get(getClass()));
+	}
+
+}
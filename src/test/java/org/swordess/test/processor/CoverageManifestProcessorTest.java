@@ -0,0 +1,206 @@
+package org.swordess.test.processor;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.swordess.test.Cover;
+import org.swordess.test.model.CoverageManifest;
+import org.swordess.test.model.CoverageSet;
+import org.swordess.test.model.TestCaseDescriptor;
+import org.swordess.test.model.TestUnitDescriptor;
+
+public class CoverageManifestProcessorTest {
+
+	private static final String IMPORTS = "import org.junit.Test;\n"
+			+ "import org.swordess.test.*;\n"
+			+ "import org.swordess.test.EquivalentCondition.Condition;\n"
+			+ "import org.swordess.test.TestCaseAnalysis.MethodAnalysis;\n";
+
+	private static final String ANALYSIS = "@TestCaseAnalysis(@MethodAnalysis(signature = \"m()\",\n"
+			+ "  equivalentConditions = @EquivalentCondition(name = \"x\",\n"
+			+ "    valid = @Condition(nbr = 1, desc = \"v\"), invalid = @Condition(nbr = 2, desc = \"i\")),\n"
+			+ "  boundaries = @Boundary(nbr = 1, desc = \"b\")))\n";
+
+	private File outputDir;
+	private DiagnosticCollector<JavaFileObject> diagnostics;
+
+	@Before
+	public void setUp() {
+		outputDir = new File("target/processor-test/" + System.nanoTime());
+		assertTrue(outputDir.mkdirs());
+	}
+
+	@Test
+	public void writeManifest() throws Exception {
+		assertTrue(compile(true, source("p.Base", "public class Base {\n"
+				+ "  @Test @Cover(methodSignature = \"m()\", validECs = 1) public void inherited() {}\n"
+				+ "}"), source("p.Sub", ANALYSIS + "public class Sub extends Base {\n"
+				+ "  @Test @Cover(methodSignature = \"m()\", invalidECs = 2, boundaries = 1) public void own() {}\n"
+				+ "  @Test public void uncovering() {}\n"
+				+ "}")));
+		assertTrue(new File(outputDir, CoverageManifest.resourceName("p.Sub")).isFile());
+
+		CoverageManifest manifest = CoverageManifest.load(loadClass("p.Sub"));
+		assertNotNull(manifest);
+
+		List<TestUnitDescriptor> expected = manifest.getExpectedTestUnitsDescriptors();
+		assertEquals(1, expected.size());
+		assertEquals("m()", expected.get(0).getMethodSignature());
+		assertEquals(CoverageSet.of(1), expected.get(0).getValidECs());
+		assertEquals(CoverageSet.of(2), expected.get(0).getInvalidECs());
+		assertEquals(CoverageSet.of(1), expected.get(0).getBoundaries());
+
+		List<String> coveringMethods = new ArrayList<>();
+		for (TestCaseDescriptor covered : manifest.getCoveredTestCaseDescriptors()) {
+			coveringMethods.add(covered.getTestMethodName());
+		}
+		assertEquals(Arrays.asList("own", "inherited"), coveringMethods);
+	}
+
+	@Test
+	public void ignoreStaleManifest() throws Exception {
+		assertTrue(compile(true, source("p.Analysed", ANALYSIS + "public class Analysed {\n"
+				+ "  @Test @Cover(methodSignature = \"m()\", validECs = 1) public void a() {}\n"
+				+ "}")));
+		assertTrue(compile(false, source("p.Analysed", ANALYSIS + "public class Analysed {\n"
+				+ "  @Test @Cover(methodSignature = \"m()\", validECs = 1) public void a() {}\n"
+				+ "  @Test @Cover(methodSignature = \"m()\", invalidECs = 2) public void b() {}\n"
+				+ "}")));
+
+		// still there, but written for the class files replaced since
+		assertTrue(new File(outputDir, CoverageManifest.resourceName("p.Analysed")).isFile());
+		assertNull(CoverageManifest.load(loadClass("p.Analysed")));
+	}
+
+	@Test
+	public void warnCoverOfSignatureAnalysedElsewhere() throws Exception {
+		assertTrue(compile(true, source("p.Split", ANALYSIS + "public class Split {\n"
+				+ "  @Test @Cover(methodSignature = \"other()\", validECs = 1) public void a() {}\n"
+				+ "}")));
+		assertTrue(hasDiagnostic(Diagnostic.Kind.WARNING, "signature other() is not analysed in this class"));
+
+		CoverageManifest manifest = CoverageManifest.load(loadClass("p.Split"));
+		assertEquals("other()", manifest.getCoveredTestCaseDescriptors().get(0).getMethodSignature());
+	}
+
+	@Test
+	public void rejectDuplicateAnalysis() throws IOException {
+		assertFalse(compile(true, source("p.Duplicate",
+				"@TestCaseAnalysis({\n"
+				+ "  @MethodAnalysis(signature = \"m()\", equivalentConditions = {}),\n"
+				+ "  @MethodAnalysis(signature = \"m()\", equivalentConditions = {})})\n"
+				+ "public class Duplicate {}")));
+		assertTrue(hasDiagnostic(Diagnostic.Kind.ERROR, "duplicate analysis of signature m()"));
+	}
+
+	@Test
+	public void rejectDuplicateNumber() throws IOException {
+		assertFalse(compile(true, source("p.Duplicate",
+				"@TestCaseAnalysis(@MethodAnalysis(signature = \"m()\",\n"
+				+ "  equivalentConditions = @EquivalentCondition(name = \"x\",\n"
+				+ "    valid = @Condition(nbr = 1, desc = \"v\"), invalid = @Condition(nbr = 1, desc = \"i\")),\n"
+				+ "  boundaries = { @Boundary(nbr = 1, desc = \"b\"), @Boundary(nbr = 1, desc = \"c\") }))\n"
+				+ "public class Duplicate {}")));
+		assertTrue(hasDiagnostic(Diagnostic.Kind.ERROR, "duplicate EC 1 in analysis of m()"));
+		assertTrue(hasDiagnostic(Diagnostic.Kind.ERROR, "duplicate boundary 1 in analysis of m()"));
+	}
+
+	@Test
+	public void rejectUnknownNumber() throws IOException {
+		assertFalse(compile(true, source("p.Unknown", ANALYSIS + "public class Unknown {\n"
+				+ "  @Test @Cover(methodSignature = \"m()\", validECs = 2, boundaries = 3) public void a() {}\n"
+				+ "}")));
+		assertTrue(hasDiagnostic(Diagnostic.Kind.ERROR, "unknown valid EC 2 of m()"));
+		assertTrue(hasDiagnostic(Diagnostic.Kind.ERROR, "unknown boundary 3 of m()"));
+		assertFalse(new File(outputDir, CoverageManifest.resourceName("p.Unknown")).exists());
+	}
+
+	@Test
+	public void rejectNegativeNumber() throws IOException {
+		assertFalse(compile(true, source("p.Negative", "@TestCaseAnalysis(@MethodAnalysis(signature = \"m()\",\n"
+				+ "  equivalentConditions = @EquivalentCondition(name = \"x\",\n"
+				+ "    valid = @Condition(nbr = -1, desc = \"negative\"))))\n"
+				+ "public class Negative {\n"
+				+ "  @Test @Cover(methodSignature = \"m()\", validECs = -1) public void a() {}\n"
+				+ "}")));
+		assertTrue(hasDiagnostic(Diagnostic.Kind.ERROR, "invalid analysis of m()"));
+		assertTrue(hasDiagnostic(Diagnostic.Kind.ERROR, "invalid cover of m()"));
+		assertFalse(new File(outputDir, CoverageManifest.resourceName("p.Negative")).exists());
+	}
+
+	private boolean compile(boolean withProcessor, JavaFileObject... sources) throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		diagnostics = new DiagnosticCollector<>();
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+			List<String> options = new ArrayList<>(Arrays.asList("-d", outputDir.getPath(),
+					"-classpath", classPathOf(Cover.class) + File.pathSeparator + classPathOf(Test.class)));
+			if (!withProcessor) {
+				options.add("-proc:none");
+			}
+			CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+					Arrays.asList(sources));
+			if (withProcessor) {
+				task.setProcessors(Arrays.asList(new CoverageManifestProcessor()));
+			}
+			return task.call();
+		}
+	}
+
+	private static String classPathOf(Class<?> clazz) {
+		try {
+			return new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private boolean hasDiagnostic(Diagnostic.Kind kind, String message) {
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+			if (diagnostic.getKind() == kind && diagnostic.getMessage(null).contains(message)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Class<?> loadClass(String name) throws Exception {
+		ClassLoader loader = new URLClassLoader(new URL[] { outputDir.toURI().toURL() }, getClass().getClassLoader());
+		return Class.forName(name, false, loader);
+	}
+
+	private static JavaFileObject source(String className, String body) {
+		int dot = className.lastIndexOf('.');
+		final String content = "package " + className.substring(0, dot) + ";\n" + IMPORTS + body;
+		return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"),
+				JavaFileObject.Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return content;
+			}
+		};
+	}
+
+}
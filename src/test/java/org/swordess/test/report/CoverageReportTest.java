@@ -0,0 +1,217 @@
+package org.swordess.test.report;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.swordess.test.EquivalentCondition;
+import org.swordess.test.EquivalentCondition.Condition;
+import org.swordess.test.TestCaseAnalysis;
+import org.swordess.test.TestCaseAnalysis.MethodAnalysis;
+import org.swordess.test.model.CoverageSet;
+import org.swordess.test.model.TestCaseDescriptor;
+import org.swordess.test.model.TestCaseDescriptor.TestCaseDescriptorBuilder;
+import org.swordess.test.model.TestUnitDescriptor;
+import org.swordess.test.report.CoverageReportReader.SignatureCursor;
+import org.swordess.test.report.CoverageReportReader.TestCursor;
+
+public class CoverageReportTest {
+
+	private File dir;
+
+	@Before
+	public void setUp() {
+		dir = new File("target/coverage-report-test/" + System.nanoTime());
+	}
+
+	@Test
+	public void writeAndRead() throws IOException {
+		File report = write("report", Base.class, CoverageSet.of(1));
+
+		try (CoverageReportReader reader = new CoverageReportReader(report)) {
+			assertEquals(2, reader.getSignatureCount());
+
+			SignatureCursor signatures = reader.signatures();
+			assertTrue(signatures.next());
+			assertEquals("m()", signatures.getSignature());
+			assertEquals(CoverageSet.of(1, 2), signatures.getExpectedValidECs());
+			assertEquals(CoverageSet.of(3), signatures.getExpectedInvalidECs());
+			assertEquals(CoverageSet.of(1), signatures.getCoveredValidECs());
+			assertEquals(CoverageSet.EMPTY, signatures.getCoveredInvalidECs());
+			assertTrue(signatures.next());
+			// covered only, not analysed
+			assertEquals("n()", signatures.getSignature());
+			assertEquals(CoverageSet.EMPTY, signatures.getExpectedValidECs());
+			assertEquals(CoverageSet.of(5), signatures.getCoveredBoundaries());
+			assertFalse(signatures.next());
+
+			TestCursor tests = reader.tests();
+			assertTrue(tests.next());
+			assertEquals("p.SampleTest#covering", tests.getTest());
+			assertEquals("m()", tests.getSignature());
+			assertEquals(CoverageSet.of(1), tests.getValidECs());
+			assertTrue(tests.next());
+			assertEquals("p.SampleTest#other", tests.getTest());
+			assertEquals(CoverageSet.of(5), tests.getBoundaries());
+			assertFalse(tests.next());
+		}
+	}
+
+	@Test
+	public void rejectTruncatedReport() throws IOException {
+		File report = write("report", Base.class, CoverageSet.of(1));
+		long length = report.length();
+		for (long truncatedLength : new long[] { 5, length / 2, length - 1 }) {
+			try (RandomAccessFile file = new RandomAccessFile(report, "rw")) {
+				file.setLength(truncatedLength);
+			}
+			try (CoverageReportReader reader = new CoverageReportReader(report)) {
+				readAll(reader);
+				fail("truncated to " + truncatedLength + " bytes but read");
+			} catch (IOException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectCorruptWordCount() throws IOException {
+		File report = new File(dir, "corrupt");
+		dir.mkdirs();
+		try (DataOutputStream out = new DataOutputStream(new FileOutputStream(report))) {
+			out.writeInt(CoverageReportFormat.MAGIC);
+			out.writeShort(CoverageReportFormat.VERSION);
+			out.writeInt(0);
+			out.writeInt(1);
+			out.writeInt(1);
+			out.write('t');
+			out.writeInt(1);
+			out.write('m');
+			out.writeInt(Integer.MAX_VALUE);
+		}
+		try (CoverageReportReader reader = new CoverageReportReader(report)) {
+			readAll(reader);
+		}
+	}
+
+	@Test
+	public void diff() throws IOException {
+		File base = write("base", Base.class, CoverageSet.of(1, 2));
+		File head = write("head", Head.class, CoverageSet.of(2, 4));
+
+		try (CoverageReportReader baseReader = new CoverageReportReader(base);
+				CoverageReportReader headReader = new CoverageReportReader(head)) {
+			assertEquals(Arrays.asList(
+					"- m() validECs: [1]",
+					"+ m() validECs: [4]",
+					"* m() validECs: analysed [1, 2] -> [1, 2, 4]"), CoverageReportDiff.diff(baseReader, headReader));
+			assertEquals(Collections.<String>emptyList(), CoverageReportDiff.diff(baseReader, baseReader));
+		}
+	}
+
+	@Test
+	public void diffAnalysedSignatures() throws IOException {
+		CoverageReportWriter writer = new CoverageReportWriter();
+		writer.add("p.OtherTest", unitsOf(Other.class), Collections.<TestCaseDescriptor>emptyList());
+		File head = new File(dir, "head");
+		writer.writeTo(head);
+		File base = write("base", Base.class, CoverageSet.of(1));
+
+		try (CoverageReportReader baseReader = new CoverageReportReader(base);
+				CoverageReportReader headReader = new CoverageReportReader(head)) {
+			List<String> changes = CoverageReportDiff.diff(baseReader, headReader);
+			assertEquals(Arrays.asList(
+					"* m(): no longer analysed",
+					"* n(): no longer analysed",
+					"* o(): newly analysed"), changes);
+		}
+	}
+
+	/**
+	 * Writes a report of a class with the analysis of <tt>analysed</tt>,
+	 * covering the given valid ECs of <tt>m()</tt> and boundary 5 of
+	 * <tt>n()</tt>.
+	 */
+	private File write(String name, Class<?> analysed, CoverageSet coveredValidECs) throws IOException {
+		CoverageReportWriter writer = new CoverageReportWriter();
+		writer.add("p.SampleTest", unitsOf(analysed), Arrays.asList(
+				testCase("covering", "m()", coveredValidECs, CoverageSet.EMPTY),
+				testCase("other", "n()", CoverageSet.EMPTY, CoverageSet.of(5))));
+		File report = new File(dir, name);
+		writer.writeTo(report);
+		return report;
+	}
+
+	private static void readAll(CoverageReportReader reader) throws IOException {
+		SignatureCursor signatures = reader.signatures();
+		while (signatures.next()) {
+			signatures.getCoveredBoundaries();
+		}
+		TestCursor tests = reader.tests();
+		while (tests.next()) {
+			// decoded by next()
+		}
+	}
+
+	private static List<TestUnitDescriptor> unitsOf(Class<?> analysed) {
+		List<TestUnitDescriptor> units = new ArrayList<>();
+		for (MethodAnalysis methodAnalysis : analysed.getAnnotation(TestCaseAnalysis.class).value()) {
+			units.add(new TestUnitDescriptor(methodAnalysis));
+		}
+		return units;
+	}
+
+	private static TestCaseDescriptor testCase(String methodName, String signature, CoverageSet validECs,
+			CoverageSet boundaries) {
+		TestCaseDescriptorBuilder builder = new TestCaseDescriptorBuilder(methodName, signature);
+		builder.validECs(validECs).invalidECs(CoverageSet.EMPTY).boundaries(boundaries);
+		return builder.build();
+	}
+
+	@TestCaseAnalysis(@MethodAnalysis(
+		signature = "m()",
+		equivalentConditions = @EquivalentCondition(
+			name    = "x",
+			valid   = { @Condition(nbr = 1, desc = "one"), @Condition(nbr = 2, desc = "two") },
+			invalid = @Condition(nbr = 3, desc = "three")
+		)
+	))
+	public static class Base {
+	}
+
+	@TestCaseAnalysis(@MethodAnalysis(
+		signature = "m()",
+		equivalentConditions = @EquivalentCondition(
+			name    = "x",
+			valid   = { @Condition(nbr = 1, desc = "one"), @Condition(nbr = 2, desc = "two"),
+					@Condition(nbr = 4, desc = "four") },
+			invalid = @Condition(nbr = 3, desc = "three")
+		)
+	))
+	public static class Head {
+	}
+
+	@TestCaseAnalysis(@MethodAnalysis(
+		signature = "o()",
+		equivalentConditions = @EquivalentCondition(
+			name  = "y",
+			valid = @Condition(nbr = 1, desc = "one")
+		)
+	))
+	public static class Other {
+	}
+
+}
@@ -1,5 +1,7 @@
 package org.swordess.test.sample;
 
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertTrue;
 
 import org.junit.Test;
@@ -257,4 +259,43 @@ public class ArrayUtilsTest {
 			));
 	}
 	
+	@Test
+	public void testEqualsLongRanges() {
+		byte[] src = new byte[103];
+		byte[] dest = new byte[101];
+		for (int i = 0; i < 100; i++) {
+			src[i + 3] = dest[i + 1] = (byte) i;
+		}
+		assertTrue(ArrayUtils.equals(src, 3, dest, 1, 100));
+		assertEquals(-1, ArrayUtils.mismatchByBytes(src, 3, dest, 1, 100));
+		
+		for (int diff : new int[] { 0, 50, 95, 99 }) {
+			dest[diff + 1]++;
+			assertFalse(ArrayUtils.equals(src, 3, dest, 1, 100));
+			assertEquals(diff, ArrayUtils.mismatchByBytes(src, 3, dest, 1, 100));
+			dest[diff + 1]--;
+		}
+	}
+	
+	@Test
+	public void testMismatchAndIndexOf() {
+		byte[] src = new byte[103];
+		byte[] dest = new byte[101];
+		for (int i = 0; i < 100; i++) {
+			src[i + 3] = dest[i + 1] = (byte) (i + 1);
+		}
+		assertEquals(-1, ArrayUtils.mismatch(src, 3, dest, 1, 100));
+		assertEquals(-1, ArrayUtils.mismatch(src, 103, dest, 101, 0));
+		for (int diff : new int[] { 0, 7, 8, 50, 95, 99 }) {
+			dest[diff + 1] = 0;
+			assertEquals(diff, ArrayUtils.mismatch(src, 3, dest, 1, 100));
+			assertEquals(diff, ArrayUtils.mismatchByBytes(src, 3, dest, 1, 100));
+			assertEquals(diff + 1, ArrayUtils.indexOf(dest, 1, 101, (byte) 0));
+			dest[diff + 1] = (byte) (diff + 1);
+		}
+		assertEquals(-1, ArrayUtils.indexOf(dest, 1, 101, (byte) 0));
+		assertEquals(-1, ArrayUtils.indexOf(dest, 1, 50, (byte) 50));
+		assertEquals(50, ArrayUtils.indexOf(dest, 1, 51, (byte) 50));
+	}
+	
 }
@@ -0,0 +1,207 @@
+package org.swordess.test.sample;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * Hands log records to another handler from a background thread, so the
+ * logging threads neither wait for the other handler nor contend on its
+ * lock.
+ * <p>
+ * Records pass through a ring buffer preallocated with the given capacity,
+ * which is offered to without locking. When the ring is full, records are
+ * dropped and counted instead of blocking the logging thread.
+ * <p>
+ * The caller of each record is inferred on the logging thread, as it cannot
+ * be found from the stack of the background thread.
+ * <p>
+ * NOTE: records are formatted by the other handler on the background thread,
+ * so their parameters should not be modified after logging.
+ */
+public class AsyncRingBufferHandler extends Handler {
+
+	private static final long FLUSH_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	private final Handler target;
+
+	private final LogRecord[] ring;
+	private final int mask;
+
+	/**
+	 * The sequence of each slot: equal to the next offer position mapped to
+	 * it when the slot is free, and to that position + 1 once it is filled.
+	 */
+	private final AtomicLongArray sequences;
+
+	/** the next position to offer to, advanced by the logging threads */
+	private final AtomicLong tail = new AtomicLong();
+
+	/** the next position to take from, advanced by the writer only */
+	private volatile long head;
+
+	private final LongAdder droppedCount = new LongAdder();
+
+	private volatile boolean running = true;
+	private final Thread writer;
+
+	/** set by the writer while it is parked, or about to be, for lack of records */
+	private volatile boolean writerParked;
+
+	/**
+	 * @param target
+	 *            the handler to hand the records to, should not be null
+	 * @param capacity
+	 *            the number of records the ring holds, rounded up to a power
+	 *            of two, should be larger than 0
+	 * @throws IllegalArgumentException
+	 *             if any argument is not valid
+	 */
+	public AsyncRingBufferHandler(Handler target, int capacity) {
+		if (null == target) {
+			throw new IllegalArgumentException("target should not be null");
+		}
+		if (capacity <= 0 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("capacity should be in (0, 2^30]");
+		}
+
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+		size = Math.max(1, size);
+		this.target = target;
+		this.ring = new LogRecord[size];
+		this.mask = size - 1;
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequences.set(i, i);
+		}
+
+		this.writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				write();
+			}
+		}, "async-log-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	@Override
+	public void publish(LogRecord record) {
+		if (!running || !isLoggable(record)) {
+			return;
+		}
+		// infers the source class and method from the stack of this thread
+		record.getSourceClassName();
+		if (!offer(record)) {
+			droppedCount.increment();
+		}
+	}
+
+	/**
+	 * Waits for the records published so far to be handed over, and flushes
+	 * the other handler.
+	 */
+	@Override
+	public void flush() {
+		long published = tail.get();
+		while (head < published && writer.isAlive()) {
+			LockSupport.parkNanos(FLUSH_PARK_NANOS);
+		}
+		target.flush();
+	}
+
+	/**
+	 * Hands over the remaining records and closes the other handler.
+	 */
+	@Override
+	public void close() {
+		running = false;
+		LockSupport.unpark(writer);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		target.close();
+	}
+
+	/**
+	 * Returns the number of records dropped because the ring was full.
+	 */
+	public long getDroppedCount() {
+		return droppedCount.sum();
+	}
+
+	private boolean offer(LogRecord record) {
+		long position = tail.get();
+		while (true) {
+			int index = (int) position & mask;
+			long available = sequences.get(index) - position;
+			if (0 == available) {
+				if (tail.compareAndSet(position, position + 1)) {
+					ring[index] = record;
+					// not lazily, so either the writer sees the record or
+					// this thread sees the writer parked
+					sequences.set(index, position + 1);
+					if (writerParked) {
+						LockSupport.unpark(writer);
+					}
+					return true;
+				}
+				position = tail.get();
+			} else if (available < 0) {
+				// the writer has not taken the record a lap ahead yet
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	private LogRecord poll() {
+		long position = head;
+		int index = (int) position & mask;
+		if (sequences.get(index) != position + 1) {
+			return null;
+		}
+		LogRecord record = ring[index];
+		ring[index] = null;
+		sequences.lazySet(index, position + ring.length);
+		head = position + 1;
+		return record;
+	}
+
+	private boolean isReady() {
+		long position = head;
+		return sequences.get((int) position & mask) == position + 1;
+	}
+
+	private void write() {
+		while (true) {
+			LogRecord record = poll();
+			if (null != record) {
+				try {
+					target.publish(record);
+				} catch (RuntimeException e) {
+					reportError(null, e, ErrorManager.WRITE_FAILURE);
+				}
+			} else if (running) {
+				writerParked = true;
+				// checks again, as a record offered meanwhile may not unpark
+				if (running && !isReady()) {
+					LockSupport.park(this);
+				}
+				writerParked = false;
+			} else if (head == tail.get()) {
+				break;
+			}
+		}
+		target.flush();
+	}
+
+}
@@ -0,0 +1,128 @@
+package org.swordess.test.sample;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+public class AsyncRingBufferHandlerTest {
+
+	@Test
+	public void handsOverAllRecords() throws InterruptedException {
+		final CollectingHandler target = new CollectingHandler(null);
+		final AsyncRingBufferHandler handler = new AsyncRingBufferHandler(target, 1 << 14);
+		
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 1000; j++) {
+						handler.publish(new LogRecord(Level.INFO, "record {0}"));
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		handler.flush();
+		
+		assertEquals(0, handler.getDroppedCount());
+		assertEquals(4000, target.records.size());
+		handler.close();
+		assertTrue(target.closed);
+	}
+	
+	@Test
+	public void dropsRecordsWhenFull() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		CollectingHandler target = new CollectingHandler(release);
+		AsyncRingBufferHandler handler = new AsyncRingBufferHandler(target, 3);
+		
+		for (int i = 0; i < 10; i++) {
+			handler.publish(new LogRecord(Level.INFO, "record"));
+		}
+		// at most one record taken by the writer and four in the ring
+		assertTrue(handler.getDroppedCount() >= 5);
+		
+		release.countDown();
+		handler.close();
+		assertEquals(10, target.records.size() + handler.getDroppedCount());
+	}
+	
+	@Test
+	public void keepsSourceOfRecords() {
+		CollectingHandler target = new CollectingHandler(null);
+		AsyncRingBufferHandler handler = new AsyncRingBufferHandler(target, 4);
+		Logger logger = Logger.getAnonymousLogger();
+		logger.setUseParentHandlers(false);
+		logger.addHandler(handler);
+		
+		logger.info("record");
+		handler.close();
+		
+		LogRecord record = target.records.poll();
+		assertEquals(AsyncRingBufferHandlerTest.class.getName(), record.getSourceClassName());
+		assertEquals("keepsSourceOfRecords", record.getSourceMethodName());
+	}
+	
+	@Test(timeout = 10000)
+	public void wakesUpParkedWriter() throws InterruptedException {
+		CollectingHandler target = new CollectingHandler(null);
+		AsyncRingBufferHandler handler = new AsyncRingBufferHandler(target, 4);
+		for (int i = 0; i < 100; i++) {
+			// gives the writer time to run out of records and park
+			Thread.sleep(1);
+			handler.publish(new LogRecord(Level.INFO, "record"));
+			while (target.records.size() <= i) {
+				Thread.yield();
+			}
+		}
+		handler.close();
+		assertEquals(100, target.records.size());
+	}
+	
+	private static class CollectingHandler extends Handler {
+		
+		final Queue<LogRecord> records = new ConcurrentLinkedQueue<>();
+		private final CountDownLatch release;
+		volatile boolean closed;
+		
+		CollectingHandler(CountDownLatch release) {
+			this.release = release;
+		}
+		
+		@Override
+		public void publish(LogRecord record) {
+			if (null != release) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			records.add(record);
+		}
+		
+		@Override
+		public void flush() {
+		}
+		
+		@Override
+		public void close() {
+			closed = true;
+		}
+		
+	}
+	
+}
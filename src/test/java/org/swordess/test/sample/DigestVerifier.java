@@ -0,0 +1,194 @@
+package org.swordess.test.sample;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+/**
+ * Verifies a stream against an expected digest and length instead of the
+ * expected bytes themselves, so streams of any size are verified in one pass
+ * with constant memory.
+ * <p>
+ * Any {@link MessageDigest} algorithm, e.g. <tt>SHA-256</tt>, can be used,
+ * as well as the checksums {@value #CRC32} and {@value #CRC32C} whose values
+ * are compared as 4 bytes in big-endian order. {@value #CRC32C} requires
+ * Java 9 or later.
+ * <p>
+ * NOTE: a verifier reuses its buffer and digest, so it must not be used by
+ * several streams concurrently.
+ */
+public class DigestVerifier implements InputStreamProvider.InputStreamUser {
+
+	public static final String CRC32 = "CRC32";
+	public static final String CRC32C = "CRC32C";
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private final Accumulator accumulator;
+	private final byte[] expectedDigest;
+	private final long expectedLength;
+
+	private final byte[] buf = new byte[BUFFER_SIZE];
+
+	private boolean match;
+	private long actualLength = -1;
+	private byte[] actualDigest;
+
+	/**
+	 * Constructs a verifier with the given digest and length.
+	 * 
+	 * @param algorithm
+	 *            the digest algorithm, should not be null
+	 * @param expectedDigest
+	 *            expected digest of the data, should not be null
+	 * @param expectedLength
+	 *            expected number of bytes of the data, should not be negative
+	 * @throws IllegalArgumentException
+	 *             if any argument is not valid, or the algorithm is not
+	 *             available
+	 */
+	public DigestVerifier(String algorithm, byte[] expectedDigest, long expectedLength) {
+		if (null == algorithm) {
+			throw new IllegalArgumentException("algorithm should not be null");
+		}
+		if (null == expectedDigest) {
+			throw new IllegalArgumentException("expected digest should not be null");
+		}
+		if (expectedLength < 0) {
+			throw new IllegalArgumentException("expected length should not be negative");
+		}
+		this.accumulator = Accumulator.of(algorithm);
+		this.expectedDigest = expectedDigest.clone();
+		this.expectedLength = expectedLength;
+	}
+
+	@Override
+	public void use(InputStream in) throws IOException {
+		accumulator.reset();
+		long length = 0;
+		int bytesRead = -1;
+		while (-1 != (bytesRead = in.read(buf, 0, buf.length))) {
+			length += bytesRead;
+			if (length > expectedLength) {
+				// no need to digest the rest, the stream is too long anyway
+				actualLength = length;
+				actualDigest = null;
+				match = false;
+				return;
+			}
+			accumulator.update(buf, 0, bytesRead);
+		}
+
+		actualLength = length;
+		actualDigest = accumulator.digest();
+		match = length == expectedLength && MessageDigest.isEqual(expectedDigest, actualDigest);
+	}
+
+	public boolean isMatched() {
+		return match;
+	}
+
+	/**
+	 * Returns the number of bytes read by the last {@link #use(InputStream)},
+	 * which stops reading as soon as it exceeds the expected length, or -1 if
+	 * no stream has been used yet.
+	 */
+	public long getActualLength() {
+		return actualLength;
+	}
+
+	/**
+	 * Returns the digest of the stream used last, or null if no stream has
+	 * been used yet or the stream was longer than expected.
+	 */
+	public byte[] getActualDigest() {
+		return null == actualDigest ? null : actualDigest.clone();
+	}
+
+	/**
+	 * Adapts {@link MessageDigest}s and {@link Checksum}s to each other.
+	 */
+	private static abstract class Accumulator {
+
+		static Accumulator of(String algorithm) {
+			if (CRC32.equalsIgnoreCase(algorithm)) {
+				return new ChecksumAccumulator(new CRC32());
+			}
+			if (CRC32C.equalsIgnoreCase(algorithm)) {
+				try {
+					return new ChecksumAccumulator((Checksum) Class.forName("java.util.zip.CRC32C")
+							.getDeclaredConstructor().newInstance());
+				} catch (ReflectiveOperationException e) {
+					throw new IllegalArgumentException(CRC32C + " requires Java 9 or later", e);
+				}
+			}
+			try {
+				return new DigestAccumulator(MessageDigest.getInstance(algorithm));
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalArgumentException("unknown algorithm " + algorithm, e);
+			}
+		}
+
+		abstract void reset();
+
+		abstract void update(byte[] b, int off, int len);
+
+		abstract byte[] digest();
+
+	}
+
+	private static class DigestAccumulator extends Accumulator {
+
+		private final MessageDigest digest;
+
+		DigestAccumulator(MessageDigest digest) {
+			this.digest = digest;
+		}
+
+		@Override
+		void reset() {
+			digest.reset();
+		}
+
+		@Override
+		void update(byte[] b, int off, int len) {
+			digest.update(b, off, len);
+		}
+
+		@Override
+		byte[] digest() {
+			return digest.digest();
+		}
+
+	}
+
+	private static class ChecksumAccumulator extends Accumulator {
+
+		private final Checksum checksum;
+
+		ChecksumAccumulator(Checksum checksum) {
+			this.checksum = checksum;
+		}
+
+		@Override
+		void reset() {
+			checksum.reset();
+		}
+
+		@Override
+		void update(byte[] b, int off, int len) {
+			checksum.update(b, off, len);
+		}
+
+		@Override
+		byte[] digest() {
+			int value = (int) checksum.getValue();
+			return new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+		}
+
+	}
+
+}
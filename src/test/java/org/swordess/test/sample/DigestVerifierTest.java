@@ -0,0 +1,79 @@
+package org.swordess.test.sample;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class DigestVerifierTest {
+
+	private Logger mockLog;
+	private InputStreamProvider provider;
+	private byte[] data;
+	
+	@Before
+	public void setUp() throws IOException {
+		mockLog = Mockito.mock(Logger.class);
+		provider = new InputStreamProvider(FileUtil.ensureExistence("digest.tmp"));
+		provider.setLogger(mockLog);
+		data = new byte[20000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i * 31);
+		}
+		FileUtil.write(provider.getPath(), data);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void instantiateDigestVerifier1() {
+		new DigestVerifier("no-such-algorithm", new byte[0], 0);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void instantiateDigestVerifier2() {
+		new DigestVerifier("SHA-256", new byte[0], -1);
+	}
+	
+	@Test
+	public void useSha256() throws NoSuchAlgorithmException {
+		byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+		
+		DigestVerifier verifier = new DigestVerifier("SHA-256", digest, data.length);
+		provider.usedBy(verifier);
+		assertTrue(verifier.isMatched());
+		assertEquals(data.length, verifier.getActualLength());
+		
+		digest[0]++;
+		verifier = new DigestVerifier("SHA-256", digest, data.length);
+		provider.usedBy(verifier);
+		assertFalse(verifier.isMatched());
+	}
+	
+	@Test
+	public void useCrc32() {
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		int value = (int) crc.getValue();
+		byte[] digest = { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+		
+		DigestVerifier verifier = new DigestVerifier(DigestVerifier.CRC32, digest, data.length);
+		provider.usedBy(verifier);
+		assertTrue(verifier.isMatched());
+		
+		verifier = new DigestVerifier(DigestVerifier.CRC32, digest, data.length - 1);
+		provider.usedBy(verifier);
+		assertFalse(verifier.isMatched());
+		assertEquals(data.length, verifier.getActualLength());
+		assertNull(verifier.getActualDigest());
+	}
+	
+}
@@ -0,0 +1,65 @@
+package org.swordess.test.sample;
+
+/**
+ * Receives measurements of the streams provided by an
+ * {@link InputStreamProvider}.
+ * <p>
+ * Implementations are called from the threads using the streams, possibly
+ * concurrently, so they should be thread-safe and cheap.
+ * 
+ * @see InputStreamProvider#setMetrics(InputStreamMetrics)
+ */
+public interface InputStreamMetrics {
+
+	/**
+	 * Ignores all measurements.
+	 */
+	InputStreamMetrics NONE = new InputStreamMetrics() {
+
+		@Override
+		public void streamOpened(long nanos) {
+		}
+
+		@Override
+		public void streamUsed(long nanos, long bytesDelivered) {
+		}
+
+		@Override
+		public void streamRewound() {
+		}
+
+		@Override
+		public void closeFailed() {
+		}
+
+	};
+
+	/**
+	 * A stream has been opened.
+	 * 
+	 * @param nanos
+	 *            the time taken to open the stream
+	 */
+	void streamOpened(long nanos);
+
+	/**
+	 * An {@link InputStreamProvider.InputStreamUser} has returned.
+	 * 
+	 * @param nanos
+	 *            the time spent in <code>use</code>
+	 * @param bytesDelivered
+	 *            the number of bytes the user read from its stream
+	 */
+	void streamUsed(long nanos, long bytesDelivered);
+
+	/**
+	 * A stream shared by several users has been reset for the next one.
+	 */
+	void streamRewound();
+
+	/**
+	 * A stream could not be closed.
+	 */
+	void closeFailed();
+
+}
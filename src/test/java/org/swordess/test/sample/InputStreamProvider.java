@@ -4,9 +4,36 @@ import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -14,10 +41,35 @@ import org.apache.commons.lang.StringUtils;
 
 public class InputStreamProvider {
 
+	/**
+	 * Messages are formatted lazily from their parameters, so they cost
+	 * nothing when their level is disabled. Attach an
+	 * {@link AsyncRingBufferHandler} to keep the handlers off the hot path.
+	 */
 	private static final Logger DEFAULT_LOG = Logger.getLogger("input-stream-provider");
 	
+	/** size of the chunks multicast by {@link #usedConcurrentlyBy(Collection)} */
+	public static final int FAN_OUT_CHUNK_SIZE = 64 * 1024;
+	
+	/** number of chunks each user may lag behind the file being read */
+	public static final int FAN_OUT_QUEUE_CAPACITY = 16;
+	
+	/** size of the buffer of each stream of {@link #usedInParallelBy(Collection, Executor)} */
+	public static final int PARALLEL_BUFFER_SIZE = 64 * 1024;
+	
+	private static final ThreadFactory FAN_OUT_THREAD_FACTORY = new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "input-stream-user");
+			thread.setDaemon(true);
+			return thread;
+		}
+	};
+	
 	private Logger log;
 	
+	private InputStreamMetrics metrics = InputStreamMetrics.NONE;
+	
 	private final String path;
 	
 	/**
@@ -59,25 +111,12 @@ public class InputStreamProvider {
 	 *            null
 	 */
 	public void usedBy(InputStreamUser inUser) {
-		InputStream in = null;
 		try {
-			log.log(Level.INFO, "opening InputStream for " + path + " ...");
-			in = new FileInputStream(path);
-			inUser.use(in);
+			openAndUse(inUser);
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
 		} catch (IOException e) {
 			e.printStackTrace();
-		} finally {
-			if (null != in) {
-				try {
-					log.log(Level.INFO, "closing InputStream ...");
-					in.close();
-					log.log(Level.INFO, "InputStream closed");
-				} catch (IOException e) {
-					log.log(Level.WARNING, "cannot close InputStream", e);
-				}
-			}
 		}
 	}
 	
@@ -93,14 +132,18 @@ public class InputStreamProvider {
 	 *            null
 	 */
 	public void usedBy(Collection<? extends InputStreamUser> inUsers) {
-		BufferedInputStream in  = null;
+		InputStream in  = null;
 		try {
-			log.log(Level.INFO, "opening BufferedInputStream for " + path + " ...");
-			in = new BufferedInputStream(new FileInputStream(path));
+			log.log(Level.INFO, "opening markable InputStream for {0} ...", path);
+			in = openMeasured();
+			if (!in.markSupported()) {
+				in = new BufferedInputStream(in);
+			}
 			for (InputStreamUser inUser : inUsers) {
 				in.mark(Integer.MAX_VALUE);
-				inUser.use(in);
+				useMeasured(inUser, in);
 				in.reset();
+				metrics.streamRewound();
 				log.log(Level.INFO, "stream has been reset");
 			}
 		} catch (FileNotFoundException e) {
@@ -110,20 +153,375 @@ public class InputStreamProvider {
 		} finally {
 			if (null != in) {
 				try {
-					log.log(Level.INFO, "closing BufferedInputStream ...");
+					log.log(Level.INFO, "closing markable InputStream ...");
 					in.close();
-					log.log(Level.INFO, "BufferedInputStream closed");
+					log.log(Level.INFO, "markable InputStream closed");
 				} catch (IOException e) {
-					log.log(Level.WARNING, "cannot close BufferedInputStream", e);
+					metrics.closeFailed();
+					log.log(Level.WARNING, "cannot close markable InputStream", e);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Consume the stream which provided by this InputStreamProvider with the
+	 * specified users(clients) concurrently, reading the file only once.
+	 * <p>
+	 * Each user(client) runs in a thread of its own and gets a stream of its
+	 * own, which is fed with the chunks of the file as they are read. A user
+	 * lagging {@value #FAN_OUT_QUEUE_CAPACITY} chunks of
+	 * {@value #FAN_OUT_CHUNK_SIZE} bytes behind blocks the reading until it
+	 * catches up, so memory use is bounded whatever the size of the file. A
+	 * user may stop reading or close its stream at any time without holding
+	 * up the others.
+	 * <p>
+	 * This method returns when all users(clients) have returned.
+	 * 
+	 * @see #usedBy(Collection)
+	 * 
+	 * @param inUsers
+	 *            the users(clients) who want to use the stream, should not be
+	 *            null
+	 */
+	public void usedConcurrentlyBy(Collection<? extends InputStreamUser> inUsers) {
+		if (inUsers.isEmpty()) {
+			return;
+		}
+		
+		List<ChunkInputStream> pipes = new ArrayList<>();
+		List<Future<Void>> futures = new ArrayList<>();
+		ExecutorService executor = Executors.newFixedThreadPool(inUsers.size(), FAN_OUT_THREAD_FACTORY);
+		try {
+			for (final InputStreamUser inUser : inUsers) {
+				final ChunkInputStream pipe = new ChunkInputStream(FAN_OUT_QUEUE_CAPACITY);
+				pipes.add(pipe);
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws IOException {
+						try {
+							useMeasured(inUser, pipe);
+						} finally {
+							pipe.close();
+						}
+						return null;
+					}
+				}));
+			}
+			
+			fanOut(pipes);
+		} catch (FileNotFoundException e) {
+			e.printStackTrace();
+		} catch (IOException e) {
+			e.printStackTrace();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			// lets users still waiting for chunks fail instead of hang
+			for (ChunkInputStream pipe : pipes) {
+				pipe.fail();
+			}
+			awaitUsers(futures, executor);
+		}
+	}
+	
+	/**
+	 * Waits for all the given users(clients) to return, even if the reading
+	 * failed or the calling thread is interrupted, in which case they are
+	 * interrupted as well.
+	 */
+	private static void awaitUsers(List<Future<Void>> futures, ExecutorService executor) {
+		boolean interrupted = false;
+		for (Future<Void> future : futures) {
+			while (true) {
+				try {
+					future.get();
+					break;
+				} catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+					break;
+				} catch (CancellationException e) {
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+					for (Runnable notStarted : executor.shutdownNow()) {
+						((Future<?>) notStarted).cancel(false);
+					}
+				}
+			}
+		}
+		executor.shutdown();
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Consume the file of this InputStreamProvider with the specified
+	 * users(clients) in parallel, each one with an independent stream of its
+	 * own.
+	 * <p>
+	 * All streams read the same {@link FileChannel} at their own positions,
+	 * so the users(clients) do not contend for a shared stream. Every stream
+	 * is closed once its user(client) returns, and the channel once all of
+	 * them have returned. If the calling thread is interrupted or the
+	 * executor rejects a user(client), the users(clients) are cancelled and
+	 * the channel is closed once those already started have returned.
+	 * <p>
+	 * NOTE: interrupting a user(client) while it is reading closes the
+	 * channel, which fails the other users(clients) as well.
+	 * 
+	 * @see #usedBy(Collection)
+	 * 
+	 * @param inUsers
+	 *            the users(clients) who want to use the stream, should not be
+	 *            null
+	 * @param executor
+	 *            runs the users(clients), should not be null
+	 * @throws IOException
+	 *             if the file cannot be opened or any user(client) fails, with
+	 *             the failure of each user(client) added as a suppressed
+	 *             exception
+	 */
+	public void usedInParallelBy(Collection<? extends InputStreamUser> inUsers, Executor executor)
+			throws IOException {
+		List<FutureTask<Void>> tasks = new ArrayList<>();
+		List<Throwable> failures = new ArrayList<>();
+		// the calling thread stays a party until the users(clients) are
+		// awaited, so none of them starts reading once the channel is closing
+		final Phaser readers = new Phaser(1);
+		log.log(Level.INFO, "opening FileChannel for {0} ...", path);
+		try (final FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+			try {
+				for (final InputStreamUser inUser : inUsers) {
+					FutureTask<Void> task = new FutureTask<>(new Callable<Void>() {
+						@Override
+						public Void call() throws IOException {
+							if (readers.register() < 0) {
+								// abandoned before it started
+								return null;
+							}
+							try (InputStream in = new PositionalInputStream(channel, PARALLEL_BUFFER_SIZE)) {
+								useMeasured(inUser, in);
+							} finally {
+								readers.arriveAndDeregister();
+							}
+							return null;
+						}
+					});
+					tasks.add(task);
+					executor.execute(task);
+				}
+				
+				for (FutureTask<Void> task : tasks) {
+					try {
+						task.get();
+					} catch (ExecutionException e) {
+						failures.add(e.getCause());
+					}
+				}
+			} catch (InterruptedException | RejectedExecutionException e) {
+				for (FutureTask<Void> task : tasks) {
+					task.cancel(true);
+				}
+				if (e instanceof InterruptedException) {
+					Thread.currentThread().interrupt();
+				}
+				failures.add(e);
+			} finally {
+				readers.awaitAdvance(readers.arriveAndDeregister());
+			}
+			
+			if (!failures.isEmpty()) {
+				IOException e = new IOException(failures.size() + " of " + inUsers.size()
+						+ " users of " + path + " failed");
+				for (Throwable failure : failures) {
+					e.addSuppressed(failure);
 				}
+				throw e;
 			}
 		}
+		log.log(Level.INFO, "FileChannel closed");
+	}
+	
+	/**
+	 * Consume the file of this InputStreamProvider with the specified
+	 * user(client) asynchronously.
+	 * 
+	 * @see #usedAsyncBy(Collection, ExecutorService)
+	 */
+	public CompletableFuture<Void> usedAsyncBy(InputStreamUser inUser, ExecutorService executor) {
+		return usedAsyncBy(Collections.singleton(inUser), executor);
+	}
+	
+	/**
+	 * Consume the file of this InputStreamProvider with the specified
+	 * users(clients) asynchronously, each one with an independent stream of
+	 * its own.
+	 * <p>
+	 * Each user(client) is run on the executor, which opens its stream, so
+	 * the calling thread waits neither for the file nor for the
+	 * users(clients). As no user(client) waits for another one, an executor
+	 * of any size runs all of them through.
+	 * 
+	 * @param inUsers
+	 *            the users(clients) who want to use the stream, should not be
+	 *            null
+	 * @param executor
+	 *            runs the users(clients), should not be null
+	 * @return a future completed once all users(clients) have returned, or
+	 *         completed exceptionally with the <code>IOException</code> of
+	 *         opening the file or the failure of a user(client)
+	 */
+	public CompletableFuture<Void> usedAsyncBy(Collection<? extends InputStreamUser> inUsers,
+			ExecutorService executor) {
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		for (InputStreamUser inUser : inUsers) {
+			futures.add(useAsync(inUser, executor));
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+	}
+	
+	private CompletableFuture<Void> useAsync(final InputStreamUser inUser, ExecutorService executor) {
+		final CompletableFuture<Void> use = new CompletableFuture<>();
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						openAndUse(inUser);
+						use.complete(null);
+					} catch (Throwable e) {
+						use.completeExceptionally(e);
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			use.completeExceptionally(e);
+		}
+		return use;
+	}
+	
+	/**
+	 * Opens a stream of the file for the given user(client) and closes it once
+	 * the user(client) returns.
+	 */
+	private void openAndUse(InputStreamUser inUser) throws IOException {
+		log.log(Level.INFO, "opening InputStream for {0} ...", path);
+		InputStream in = openMeasured();
+		try {
+			useMeasured(inUser, in);
+		} finally {
+			try {
+				log.log(Level.INFO, "closing InputStream ...");
+				in.close();
+				log.log(Level.INFO, "InputStream closed");
+			} catch (IOException e) {
+				metrics.closeFailed();
+				log.log(Level.WARNING, "cannot close InputStream", e);
+			}
+		}
+	}
+	
+	/**
+	 * Reads the file once, putting each chunk and then the end of the stream
+	 * to all the given pipes.
+	 */
+	private void fanOut(List<ChunkInputStream> pipes) throws IOException, InterruptedException {
+		log.log(Level.INFO, "opening InputStream for {0} to fan out ...", path);
+		InputStream in = openMeasured();
+		try {
+			byte[] chunk;
+			while (null != (chunk = readChunk(in))) {
+				for (ChunkInputStream pipe : pipes) {
+					pipe.put(chunk);
+				}
+			}
+			for (ChunkInputStream pipe : pipes) {
+				pipe.put(ChunkInputStream.EOF);
+			}
+		} finally {
+			try {
+				log.log(Level.INFO, "closing InputStream ...");
+				in.close();
+				log.log(Level.INFO, "InputStream closed");
+			} catch (IOException e) {
+				metrics.closeFailed();
+				log.log(Level.WARNING, "cannot close InputStream", e);
+			}
+		}
+	}
+	
+	private InputStream openMeasured() throws IOException {
+		long start = System.nanoTime();
+		InputStream in = open();
+		metrics.streamOpened(System.nanoTime() - start);
+		return in;
+	}
+	
+	/**
+	 * Runs the given user(client), counting the bytes it reads unless the
+	 * metrics are ignored.
+	 */
+	private void useMeasured(InputStreamUser inUser, InputStream in) throws IOException {
+		if (InputStreamMetrics.NONE == metrics) {
+			inUser.use(in);
+			return;
+		}
+		
+		CountingInputStream countingIn = new CountingInputStream(in);
+		long start = System.nanoTime();
+		try {
+			inUser.use(countingIn);
+		} finally {
+			metrics.streamUsed(System.nanoTime() - start, countingIn.count);
+		}
+	}
+	
+	/**
+	 * Opens a new stream of the file, which is closed by the caller.
+	 * Subclasses may provide the content in other ways.
+	 */
+	protected InputStream open() throws IOException {
+		return new FileInputStream(path);
+	}
+	
+	/**
+	 * Reads the next chunk of at most {@value #FAN_OUT_CHUNK_SIZE} bytes.
+	 * 
+	 * @return the chunk, or null at the end of the stream
+	 */
+	private static byte[] readChunk(InputStream in) throws IOException {
+		byte[] chunk = new byte[FAN_OUT_CHUNK_SIZE];
+		int length = 0;
+		int bytesRead = -1;
+		while (length < chunk.length && -1 != (bytesRead = in.read(chunk, length, chunk.length - length))) {
+			length += bytesRead;
+		}
+		if (0 == length) {
+			return null;
+		}
+		return length == chunk.length ? chunk : Arrays.copyOf(chunk, length);
 	}
 	
 	public void setLogger(Logger log) {
 		this.log = log;
 	}
 	
+	/**
+	 * Sets the receiver of the measurements of this provider,
+	 * {@link InputStreamMetrics#NONE} by default.
+	 * 
+	 * @param metrics
+	 *            the receiver, should not be null
+	 */
+	public void setMetrics(InputStreamMetrics metrics) {
+		if (null == metrics) {
+			throw new IllegalArgumentException("metrics should not be null");
+		}
+		this.metrics = metrics;
+	}
+	
 	public String getPath() {
 		return path;
 	}
@@ -145,4 +543,281 @@ public class InputStreamProvider {
 		
 	}
 	
+	/**
+	 * Implemented by the streams passed to users(clients) which can also be
+	 * read through a channel, as {@link FileInputStream} can.
+	 */
+	public static interface ChannelReadable {
+		
+		/**
+		 * Returns a channel reading the same bytes as the stream, sharing its
+		 * position, or null if there is none.
+		 */
+		public ReadableByteChannel getChannel();
+		
+	}
+	
+	/**
+	 * Counts the bytes read through it, without allocating. The channel of a
+	 * wrapped {@link FileInputStream} is exposed as well, counting the bytes
+	 * read through it, so users(clients) keep their channel fast path.
+	 */
+	private static class CountingInputStream extends FilterInputStream implements ChannelReadable {
+		
+		long count;
+		
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+		
+		@Override
+		public ReadableByteChannel getChannel() {
+			if (!(in instanceof FileInputStream)) {
+				return null;
+			}
+			final FileChannel channel = ((FileInputStream) in).getChannel();
+			return new ReadableByteChannel() {
+				@Override
+				public int read(ByteBuffer dst) throws IOException {
+					int bytesRead = channel.read(dst);
+					if (bytesRead > 0) {
+						count += bytesRead;
+					}
+					return bytesRead;
+				}
+				
+				@Override
+				public boolean isOpen() {
+					return channel.isOpen();
+				}
+				
+				@Override
+				public void close() throws IOException {
+					channel.close();
+				}
+			};
+		}
+		
+		@Override
+		public int read() throws IOException {
+			int b = in.read();
+			if (-1 != b) {
+				count++;
+			}
+			return b;
+		}
+		
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int bytesRead = in.read(b, off, len);
+			if (bytesRead > 0) {
+				count += bytesRead;
+			}
+			return bytesRead;
+		}
+		
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = in.skip(n);
+			count += skipped;
+			return skipped;
+		}
+		
+	}
+	
+	/**
+	 * A buffered stream reading a shared channel at a position of its own.
+	 */
+	private static class PositionalInputStream extends InputStream {
+		
+		private final FileChannel channel;
+		private final ByteBuffer buf;
+		private long position;
+		private boolean closed;
+		
+		PositionalInputStream(FileChannel channel, int bufferSize) {
+			this.channel = channel;
+			this.buf = ByteBuffer.allocateDirect(bufferSize);
+			// through Buffer, as ByteBuffer only overrides these methods since Java 9
+			((Buffer) this.buf).limit(0);
+		}
+		
+		@Override
+		public int read() throws IOException {
+			if (!fill()) {
+				return -1;
+			}
+			return buf.get() & 0xFF;
+		}
+		
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (0 == len) {
+				return 0;
+			}
+			if (!fill()) {
+				return -1;
+			}
+			int n = Math.min(len, buf.remaining());
+			buf.get(b, off, n);
+			return n;
+		}
+		
+		@Override
+		public long skip(long n) throws IOException {
+			ensureOpen();
+			if (n <= 0) {
+				return 0;
+			}
+			if (n <= buf.remaining()) {
+				((Buffer) buf).position(buf.position() + (int) n);
+				return n;
+			}
+			long skipped = buf.remaining() + Math.max(0, Math.min(n - buf.remaining(), channel.size() - position));
+			position += skipped - buf.remaining();
+			((Buffer) buf).limit(0);
+			return skipped;
+		}
+		
+		@Override
+		public int available() {
+			return buf.remaining();
+		}
+		
+		@Override
+		public void close() {
+			closed = true;
+		}
+		
+		/**
+		 * Reads the next part of the channel if the buffer has been used up.
+		 * 
+		 * @return <tt>false</tt> at the end of the channel
+		 */
+		private boolean fill() throws IOException {
+			ensureOpen();
+			if (buf.hasRemaining()) {
+				return true;
+			}
+			((Buffer) buf).clear();
+			int bytesRead = channel.read(buf, position);
+			((Buffer) buf).flip();
+			if (bytesRead <= 0) {
+				return false;
+			}
+			position += bytesRead;
+			return true;
+		}
+		
+		private void ensureOpen() throws IOException {
+			if (closed) {
+				throw new IOException("stream closed");
+			}
+		}
+		
+	}
+	
+	/**
+	 * A stream fed with chunks by another thread through a bounded queue. The
+	 * chunks are shared by all streams of a fan-out and never modified.
+	 */
+	private static class ChunkInputStream extends InputStream {
+		
+		static final byte[] EOF = new byte[0];
+		
+		private static final long POLL_MILLIS = 100;
+		
+		private final BlockingQueue<byte[]> chunks;
+		
+		/** set by the reading side once it stops taking chunks */
+		private volatile boolean closed;
+		
+		/** set by the feeding side once it stops putting chunks */
+		private volatile boolean failed;
+		
+		private byte[] chunk;
+		private int pos;
+		
+		ChunkInputStream(int capacity) {
+			this.chunks = new ArrayBlockingQueue<>(capacity);
+		}
+		
+		/**
+		 * Puts the given chunk, waiting while the queue is full unless the
+		 * stream has been closed meanwhile.
+		 */
+		void put(byte[] chunk) throws InterruptedException {
+			while (!closed) {
+				if (chunks.offer(chunk, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+					return;
+				}
+			}
+		}
+		
+		void fail() {
+			failed = true;
+		}
+		
+		@Override
+		public int read() throws IOException {
+			if (!ensureChunk()) {
+				return -1;
+			}
+			return chunk[pos++] & 0xFF;
+		}
+		
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (0 == len) {
+				return 0;
+			}
+			if (!ensureChunk()) {
+				return -1;
+			}
+			int n = Math.min(len, chunk.length - pos);
+			System.arraycopy(chunk, pos, b, off, n);
+			pos += n;
+			return n;
+		}
+		
+		@Override
+		public int available() {
+			return null == chunk ? 0 : chunk.length - pos;
+		}
+		
+		@Override
+		public void close() {
+			closed = true;
+			chunks.clear();
+		}
+		
+		/**
+		 * Takes the next chunk if the current one has been used up.
+		 * 
+		 * @return <tt>false</tt> at the end of the stream
+		 */
+		private boolean ensureChunk() throws IOException {
+			while (null == chunk || (EOF != chunk && pos == chunk.length)) {
+				if (closed) {
+					throw new IOException("stream closed");
+				}
+				byte[] next;
+				try {
+					next = chunks.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException();
+				}
+				if (null != next) {
+					chunk = next;
+					pos = 0;
+				} else if (failed) {
+					throw new IOException("the file is no longer read");
+				}
+			}
+			return EOF != chunk;
+		}
+		
+	}
+	
 }
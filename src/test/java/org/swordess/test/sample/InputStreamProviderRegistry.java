@@ -0,0 +1,173 @@
+package org.swordess.test.sample;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shares {@link InputStreamProvider}s by path and caches the contents of the
+ * files they provide in memory.
+ * <p>
+ * The cache holds at most the given number of bytes and evicts the least
+ * recently used files first. Files larger than that are never cached. A
+ * cached content is used only while the size and modification time of its
+ * file are unchanged, so each use costs a single <code>stat</code> instead
+ * of reading the file.
+ * <p>
+ * This class is thread-safe.
+ */
+public class InputStreamProviderRegistry {
+
+	private final long capacityBytes;
+
+	private final ConcurrentMap<String, InputStreamProvider> pathToProvider = new ConcurrentHashMap<>();
+
+	/** guarded by itself, in access order */
+	private final LinkedHashMap<String, CachedContent> pathToContent = new LinkedHashMap<>(16, 0.75f, true);
+	private long cachedBytes;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+
+	/**
+	 * @param capacityBytes
+	 *            the maximum number of bytes to be cached, should not be
+	 *            negative
+	 * @throws IllegalArgumentException
+	 *             if the capacity is negative
+	 */
+	public InputStreamProviderRegistry(long capacityBytes) {
+		if (capacityBytes < 0) {
+			throw new IllegalArgumentException("capacity should not be negative");
+		}
+		this.capacityBytes = capacityBytes;
+	}
+
+	/**
+	 * Returns the provider of the given path, creating it on first lookup
+	 * only.
+	 * 
+	 * @see InputStreamProvider#InputStreamProvider(String)
+	 */
+	public InputStreamProvider get(String path) throws FileNotFoundException {
+		InputStreamProvider provider = pathToProvider.get(path);
+		if (null == provider) {
+			InputStreamProvider newProvider = new CachedInputStreamProvider(path);
+			provider = pathToProvider.putIfAbsent(path, newProvider);
+			if (null == provider) {
+				provider = newProvider;
+			}
+		}
+		return provider;
+	}
+
+	/**
+	 * Returns the number of uses served from the cache.
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * Returns the number of uses which had to read the file.
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * Returns the number of bytes currently cached.
+	 */
+	public long getCachedBytes() {
+		synchronized (pathToContent) {
+			return cachedBytes;
+		}
+	}
+
+	private InputStream open(String path) throws IOException {
+		Path file = Paths.get(path);
+		BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		long size = attributes.size();
+		long lastModified = attributes.lastModifiedTime().toMillis();
+
+		synchronized (pathToContent) {
+			CachedContent content = pathToContent.get(path);
+			if (null != content && content.isValid(size, lastModified)) {
+				hitCount.incrementAndGet();
+				return new ByteArrayInputStream(content.bytes);
+			}
+		}
+
+		missCount.incrementAndGet();
+		if (size > capacityBytes) {
+			return new FileInputStream(path);
+		}
+
+		byte[] bytes = Files.readAllBytes(file);
+		BasicFileAttributes reread = Files.readAttributes(file, BasicFileAttributes.class);
+		if (bytes.length == size && reread.size() == size
+				&& reread.lastModifiedTime().toMillis() == lastModified) {
+			// not cached if the file changed while being read
+			put(path, new CachedContent(bytes, lastModified));
+		}
+		return new ByteArrayInputStream(bytes);
+	}
+
+	private void put(String path, CachedContent content) {
+		synchronized (pathToContent) {
+			CachedContent replaced = pathToContent.put(path, content);
+			if (null != replaced) {
+				cachedBytes -= replaced.bytes.length;
+			}
+			cachedBytes += content.bytes.length;
+
+			Iterator<CachedContent> eldestFirst = pathToContent.values().iterator();
+			while (cachedBytes > capacityBytes) {
+				cachedBytes -= eldestFirst.next().bytes.length;
+				eldestFirst.remove();
+			}
+		}
+	}
+
+	private static class CachedContent {
+
+		final byte[] bytes;
+		final long lastModified;
+
+		CachedContent(byte[] bytes, long lastModified) {
+			this.bytes = bytes;
+			this.lastModified = lastModified;
+		}
+
+		boolean isValid(long size, long lastModified) {
+			return bytes.length == size && this.lastModified == lastModified;
+		}
+
+	}
+
+	private class CachedInputStreamProvider extends InputStreamProvider {
+
+		CachedInputStreamProvider(String path) throws FileNotFoundException {
+			super(path);
+		}
+
+		@Override
+		protected InputStream open() throws IOException {
+			return InputStreamProviderRegistry.this.open(getPath());
+		}
+
+	}
+
+}
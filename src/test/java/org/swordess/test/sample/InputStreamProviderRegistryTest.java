@@ -0,0 +1,72 @@
+package org.swordess.test.sample;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class InputStreamProviderRegistryTest {
+
+	@Test
+	public void sharedProviders() throws IOException {
+		InputStreamProviderRegistry registry = new InputStreamProviderRegistry(1024);
+		String path = FileUtil.ensureExistence("registry1.tmp");
+		assertSame(registry.get(path), registry.get(path));
+	}
+	
+	@Test
+	public void hitsAndRevalidation() throws IOException {
+		InputStreamProviderRegistry registry = new InputStreamProviderRegistry(1024);
+		String path = FileUtil.ensureExistence("registry2.tmp");
+		FileUtil.write(path, new byte[] { 1, 2, 3 });
+		InputStreamProvider provider = registry.get(path);
+		provider.setLogger(Mockito.mock(Logger.class));
+		
+		InputStreamVerifier verifier = new InputStreamVerifier(new byte[] { 1, 2, 3 });
+		provider.usedBy(verifier);
+		provider.usedBy(verifier);
+		assertTrue(verifier.isMatched());
+		assertEquals(1, registry.getMissCount());
+		assertEquals(1, registry.getHitCount());
+		
+		FileUtil.write(path, new byte[] { 1, 2, 3, 4 });
+		verifier = new InputStreamVerifier(new byte[] { 1, 2, 3, 4 });
+		provider.usedBy(verifier);
+		assertTrue(verifier.isMatched());
+		assertEquals(2, registry.getMissCount());
+		assertEquals(4, registry.getCachedBytes());
+	}
+	
+	@Test
+	public void eviction() throws IOException {
+		InputStreamProviderRegistry registry = new InputStreamProviderRegistry(10);
+		String[] paths = new String[3];
+		for (int i = 0; i < paths.length; i++) {
+			paths[i] = FileUtil.ensureExistence("registry-evict" + i + ".tmp");
+			FileUtil.write(paths[i], new byte[4]);
+			InputStreamProvider provider = registry.get(paths[i]);
+			provider.setLogger(Mockito.mock(Logger.class));
+			provider.usedBy(new InputStreamVerifier(new byte[4]));
+		}
+		assertEquals(8, registry.getCachedBytes());
+		
+		// the first file has been evicted, the last one is still cached
+		registry.get(paths[2]).usedBy(new InputStreamVerifier(new byte[4]));
+		assertEquals(1, registry.getHitCount());
+		registry.get(paths[0]).usedBy(new InputStreamVerifier(new byte[4]));
+		assertEquals(4, registry.getMissCount());
+		
+		// never cached
+		String large = FileUtil.ensureExistence("registry-large.tmp");
+		FileUtil.write(large, new byte[11]);
+		registry.get(large).setLogger(Mockito.mock(Logger.class));
+		registry.get(large).usedBy(new InputStreamVerifier(new byte[11]));
+		assertEquals(8, registry.getCachedBytes());
+	}
+	
+}
@@ -2,14 +2,28 @@ package org.swordess.test.sample;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNotNull;
+import static junit.framework.Assert.assertSame;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
 import org.junit.Before;
@@ -21,6 +35,7 @@ import org.swordess.test.Cover;
 import org.swordess.test.CoverChecker;
 import org.swordess.test.EquivalentCondition;
 import org.swordess.test.EquivalentCondition.Condition;
+import org.swordess.test.Parallel;
 import org.swordess.test.TestCaseAnalysis;
 import org.swordess.test.TestCaseAnalysis.MethodAnalysis;
 import org.swordess.test.sample.InputStreamProvider.InputStreamUser;
@@ -78,14 +93,66 @@ import org.swordess.test.sample.InputStreamProvider.InputStreamUser;
 			@Boundary(nbr = 2, desc = "users with empty elements"),
 			@Boundary(nbr = 3, desc = "users with null elements")
 		}
+	),
+	@MethodAnalysis(
+		signature = InputStreamProviderTest.SIGNATURE_USED_CONCURRENTLY_BY,
+		equivalentConditions = {
+			@EquivalentCondition(
+				name    = "users of stream",
+				valid   = @Condition(nbr = 1, desc = "non-null"),
+				invalid = @Condition(nbr = 2, desc = "null")
+			)
+		},
+		boundaries = {
+			@Boundary(nbr = 1, desc = "users with empty elements"),
+			@Boundary(nbr = 2, desc = "a user closed the stream early"),
+			@Boundary(nbr = 3, desc = "file larger than what the users may lag behind")
+		}
+	),
+	@MethodAnalysis(
+		signature = InputStreamProviderTest.SIGNATURE_USED_IN_PARALLEL_BY,
+		equivalentConditions = {
+			@EquivalentCondition(
+				name    = "users of stream",
+				valid   = @Condition(nbr = 1, desc = "all succeed"),
+				invalid = @Condition(nbr = 2, desc = "some fail")
+			)
+		},
+		boundaries = {
+			@Boundary(nbr = 1, desc = "users with empty elements"),
+			@Boundary(nbr = 2, desc = "file larger than the buffer of a stream")
+		}
+	),
+	@MethodAnalysis(
+		signature = InputStreamProviderTest.SIGNATURE_USED_ASYNC_BY,
+		equivalentConditions = {
+			@EquivalentCondition(
+				name    = "file",
+				valid   = @Condition(nbr = 1, desc = "readable"),
+				invalid = @Condition(nbr = 2, desc = "deleted after the provider was constructed")
+			),
+			@EquivalentCondition(
+				name    = "users of stream",
+				valid   = @Condition(nbr = 3, desc = "all succeed"),
+				invalid = @Condition(nbr = 4, desc = "some fail")
+			)
+		},
+		boundaries = {
+			@Boundary(nbr = 1, desc = "users with empty elements"),
+			@Boundary(nbr = 2, desc = "empty file")
+		}
 	)
 })
+@Parallel(threads = 4)
 @RunWith(CoverChecker.class)
 public class InputStreamProviderTest {
 
 	static final String SIGNATURE_INPUT_STREAM_PROVIDER = "InputStreamProvider(String)";
 	static final String SIGNATURE_USED_BY = "usedBy(InputStreamUser)";
 	static final String SIGNATURE_USED_BY_COLLECTION = "usedBy(Collection<InputStreamUser>)";
+	static final String SIGNATURE_USED_CONCURRENTLY_BY = "usedConcurrentlyBy(Collection<InputStreamUser>)";
+	static final String SIGNATURE_USED_IN_PARALLEL_BY = "usedInParallelBy(Collection<InputStreamUser>, Executor)";
+	static final String SIGNATURE_USED_ASYNC_BY = "usedAsyncBy(Collection<InputStreamUser>, ExecutorService)";
 	
 	private static int ACTUAL_INVOKE_NUMBER = 0;
 	
@@ -218,6 +285,340 @@ public class InputStreamProviderTest {
 		provider.usedBy(usersWithNullElements);
 	}
 	
+	@Cover(methodSignature = SIGNATURE_USED_CONCURRENTLY_BY, validECs = 1, boundaries = 3)
+	@Test
+	public void testECUsedConcurrentlyBy1() throws IOException {
+		byte[] data = new byte[InputStreamProvider.FAN_OUT_CHUNK_SIZE * (InputStreamProvider.FAN_OUT_QUEUE_CAPACITY + 4) + 123];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i * 13);
+		}
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedConcurrentlyBy1.tmp"));
+		provider.setLogger(mockLog);
+		FileUtil.write(provider.getPath(), data);
+		
+		byte[] corrupted = data.clone();
+		corrupted[data.length - 1]++;
+		InputStreamVerifier matched = new InputStreamVerifier(data);
+		InputStreamVerifier mismatched = new InputStreamVerifier(corrupted);
+		DigestVerifier digest = new DigestVerifier(DigestVerifier.CRC32, new byte[4], data.length);
+		provider.usedConcurrentlyBy(Arrays.asList(matched, mismatched, digest));
+		
+		assertTrue(matched.isMatched());
+		assertEquals(data.length - 1, mismatched.getMismatchOffset());
+		assertEquals(data.length, digest.getActualLength());
+	}
+	
+	@Cover(methodSignature = SIGNATURE_USED_CONCURRENTLY_BY, invalidECs = 2)
+	@Test(expected = NullPointerException.class)
+	public void testECUsedConcurrentlyBy2() throws FileNotFoundException {
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedConcurrentlyBy2.tmp"));
+		provider.setLogger(mockLog);
+		provider.usedConcurrentlyBy(null);
+	}
+	
+	@Cover(methodSignature = SIGNATURE_USED_CONCURRENTLY_BY, boundaries = 1)
+	@Test
+	public void testBoundaryUsedConcurrentlyBy1() throws FileNotFoundException {
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedConcurrentlyBy3.tmp"));
+		provider.setLogger(mockLog);
+		InputStreamMetrics metrics = Mockito.mock(InputStreamMetrics.class);
+		provider.setMetrics(metrics);
+		provider.usedConcurrentlyBy(Collections.<InputStreamUser>emptySet());
+		Mockito.verify(metrics, Mockito.never()).streamOpened(Mockito.anyLong());
+	}
+	
+	@Cover(methodSignature = SIGNATURE_USED_CONCURRENTLY_BY, boundaries = 2)
+	@Test
+	public void testBoundaryUsedConcurrentlyBy2() throws IOException {
+		byte[] data = new byte[InputStreamProvider.FAN_OUT_CHUNK_SIZE * (InputStreamProvider.FAN_OUT_QUEUE_CAPACITY + 4)];
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedConcurrentlyBy4.tmp"));
+		provider.setLogger(mockLog);
+		FileUtil.write(provider.getPath(), data);
+		
+		InputStreamVerifier verifier = new InputStreamVerifier(data);
+		provider.usedConcurrentlyBy(Arrays.asList(new InputStreamUser() {
+			@Override
+			public void use(InputStream in) throws IOException {
+				in.read();
+				in.close();
+			}
+		}, verifier));
+		assertTrue(verifier.isMatched());
+	}
+	
+	@Test
+	public void testUsedConcurrentlyByWaitsForUsersWhenReadFails() throws IOException {
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedConcurrentlyBy5.tmp"));
+		provider.setLogger(mockLog);
+		FileUtil.ensureNonExistence(provider.getPath());
+		
+		final AtomicBoolean returned = new AtomicBoolean();
+		provider.usedConcurrentlyBy(Arrays.asList(new InputStreamUser() {
+			@Override
+			public void use(InputStream in) throws IOException {
+				try {
+					in.read();
+				} finally {
+					try {
+						Thread.sleep(200);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					returned.set(true);
+				}
+			}
+		}));
+		assertTrue(returned.get());
+	}
+	
+	@Cover(methodSignature = SIGNATURE_USED_IN_PARALLEL_BY, validECs = 1, boundaries = 2)
+	@Test
+	public void testECUsedInParallelBy1() throws IOException {
+		byte[] data = new byte[InputStreamProvider.PARALLEL_BUFFER_SIZE * 3 + 7];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i * 17);
+		}
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedInParallelBy1.tmp"));
+		provider.setLogger(mockLog);
+		FileUtil.write(provider.getPath(), data);
+		
+		List<InputStreamVerifier> verifiers = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			verifiers.add(new InputStreamVerifier(data, 1000 + i));
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			provider.usedInParallelBy(verifiers, executor);
+		} finally {
+			executor.shutdown();
+		}
+		for (InputStreamVerifier verifier : verifiers) {
+			assertTrue(verifier.isMatched());
+		}
+	}
+	
+	@Cover(methodSignature = SIGNATURE_USED_IN_PARALLEL_BY, invalidECs = 2)
+	@Test
+	public void testECUsedInParallelBy2() throws IOException {
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedInParallelBy2.tmp"));
+		provider.setLogger(mockLog);
+		FileUtil.write(provider.getPath(), new byte[] { 1, 2, 3 });
+		
+		InputStreamUser failingUser = new InputStreamUser() {
+			@Override
+			public void use(InputStream in) throws IOException {
+				throw new IOException("failed");
+			}
+		};
+		InputStreamVerifier verifier = new InputStreamVerifier(new byte[] { 1, 2, 3 });
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			provider.usedInParallelBy(Arrays.asList(failingUser, verifier, failingUser), executor);
+			fail();
+		} catch (IOException e) {
+			assertEquals(2, e.getSuppressed().length);
+		} finally {
+			executor.shutdown();
+		}
+		assertTrue(verifier.isMatched());
+	}
+	
+	@Test
+	public void testUsedInParallelByWaitsForStartedUsersWhenRejected() throws IOException {
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedInParallelBy4.tmp"));
+		provider.setLogger(mockLog);
+		FileUtil.write(provider.getPath(), new byte[] { 1, 2, 3 });
+		
+		final CountDownLatch started = new CountDownLatch(1);
+		final AtomicBoolean returned = new AtomicBoolean();
+		InputStreamUser slowUser = new InputStreamUser() {
+			@Override
+			public void use(InputStream in) throws IOException {
+				started.countDown();
+				// keeps running even when cancelled
+				long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+				while (System.nanoTime() < end) {
+					Thread.interrupted();
+				}
+				returned.set(true);
+			}
+		};
+		Executor executor = new Executor() {
+			private int executed;
+			
+			@Override
+			public void execute(Runnable command) {
+				if (executed++ == 0) {
+					new Thread(command).start();
+					return;
+				}
+				try {
+					started.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				throw new RejectedExecutionException();
+			}
+		};
+		try {
+			provider.usedInParallelBy(Arrays.asList(slowUser, new InputStreamVerifier(new byte[0])), executor);
+			fail();
+		} catch (IOException e) {
+			assertTrue(e.getSuppressed()[0] instanceof RejectedExecutionException);
+		}
+		assertTrue(returned.get());
+	}
+	
+	@Cover(methodSignature = SIGNATURE_USED_IN_PARALLEL_BY, boundaries = 1)
+	@Test
+	public void testBoundaryUsedInParallelBy1() throws IOException {
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedInParallelBy3.tmp"));
+		provider.setLogger(mockLog);
+		provider.usedInParallelBy(Collections.<InputStreamUser>emptySet(), Executors.newSingleThreadExecutor());
+	}
+	
+	@Cover(methodSignature = SIGNATURE_USED_ASYNC_BY, validECs = {1,3})
+	@Test
+	public void testECUsedAsyncBy1() throws Exception {
+		byte[] data = new byte[100000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i * 19);
+		}
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedAsyncBy1.tmp"));
+		provider.setLogger(mockLog);
+		FileUtil.write(provider.getPath(), data);
+		
+		InputStreamVerifier first = new InputStreamVerifier(data);
+		InputStreamVerifier second = new InputStreamVerifier(data);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			provider.usedAsyncBy(Arrays.asList(first, second), executor).get();
+		} finally {
+			executor.shutdown();
+		}
+		assertTrue(first.isMatched());
+		assertTrue(second.isMatched());
+	}
+	
+	@Cover(methodSignature = SIGNATURE_USED_ASYNC_BY, invalidECs = 2)
+	@Test
+	public void testECUsedAsyncBy2() throws Exception {
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedAsyncBy2.tmp"));
+		provider.setLogger(mockLog);
+		FileUtil.ensureNonExistence(provider.getPath());
+		
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			provider.usedAsyncBy(new InputStreamVerifier(new byte[0]), executor).get();
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Cover(methodSignature = SIGNATURE_USED_ASYNC_BY, invalidECs = 4, boundaries = 2)
+	@Test
+	public void testECUsedAsyncBy3() throws Exception {
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedAsyncBy3.tmp"));
+		provider.setLogger(mockLog);
+		
+		final IOException failure = new IOException("failed");
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			provider.usedAsyncBy(new InputStreamUser() {
+				@Override
+				public void use(InputStream in) throws IOException {
+					throw failure;
+				}
+			}, executor).get();
+			fail();
+		} catch (ExecutionException e) {
+			assertSame(failure, e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Cover(methodSignature = SIGNATURE_USED_ASYNC_BY, boundaries = 1)
+	@Test
+	public void testBoundaryUsedAsyncBy1() throws Exception {
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedAsyncBy4.tmp"));
+		provider.setLogger(mockLog);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			provider.usedAsyncBy(Collections.<InputStreamUser>emptySet(), executor).get();
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	@Test
+	public void testUsedAsyncByWithFewerThreadsThanUsers() throws Exception {
+		byte[] data = new byte[4 * 1024 * 1024];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i * 23);
+		}
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedAsyncBy6.tmp"));
+		provider.setLogger(mockLog);
+		FileUtil.write(provider.getPath(), data);
+		
+		InputStreamVerifier first = new InputStreamVerifier(data);
+		InputStreamVerifier second = new InputStreamVerifier(data);
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		try {
+			provider.usedAsyncBy(Arrays.asList(first, second), executor).get(30, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+		assertTrue(first.isMatched());
+		assertTrue(second.isMatched());
+	}
+	
+	@Test
+	public void testUsedAsyncByOpensThroughSubclass() throws Exception {
+		final byte[] content = new byte[3 * InputStreamProvider.FAN_OUT_CHUNK_SIZE + 1];
+		Arrays.fill(content, (byte) 7);
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedAsyncBy5.tmp")) {
+			@Override
+			protected InputStream open() {
+				return new ByteArrayInputStream(content);
+			}
+		};
+		provider.setLogger(mockLog);
+		InputStreamMetrics metrics = Mockito.mock(InputStreamMetrics.class);
+		provider.setMetrics(metrics);
+		
+		InputStreamVerifier verifier = new InputStreamVerifier(content);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			provider.usedAsyncBy(verifier, executor).get();
+		} finally {
+			executor.shutdown();
+		}
+		assertTrue(verifier.isMatched());
+		Mockito.verify(metrics).streamOpened(Mockito.anyLong());
+		Mockito.verify(metrics).streamUsed(Mockito.anyLong(), Mockito.eq((long) content.length));
+	}
+	
+	@Test
+	public void testUsedByKeepsChannelWithMetrics() throws Exception {
+		byte[] data = new byte[100000];
+		Arrays.fill(data, (byte) 3);
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("usedByChannel.tmp"));
+		provider.setLogger(mockLog);
+		FileUtil.write(provider.getPath(), data);
+		InputStreamMetrics metrics = Mockito.mock(InputStreamMetrics.class);
+		provider.setMetrics(metrics);
+		
+		InputStreamVerifier verifier = Mockito.spy(new InputStreamVerifier(data));
+		provider.usedBy(verifier);
+		assertTrue(verifier.isMatched());
+		Mockito.verify(verifier).use(Mockito.any(ReadableByteChannel.class));
+		Mockito.verify(metrics).streamUsed(Mockito.anyLong(), Mockito.eq((long) data.length));
+	}
+	
 	private static class RecordableStreamUser implements InputStreamUser {
 
 		private int expectedInvokeNumber;
@@ -1,13 +1,28 @@
 package org.swordess.test.sample;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 
 
-public class InputStreamVerifier implements InputStreamProvider.InputStreamUser {
+public class InputStreamVerifier implements InputStreamProvider.InputStreamUser,
+		MappedInputStreamProvider.ByteBufferUser {
 
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+	
 	private byte[] expectedData;
+	private final ByteBuffer expectedBuf;
+	private final int chunkSize;
+	
+	/** reused across uses, allocated on first demand */
+	private byte[] buf;
+	private ByteBuffer directBuf;
+	
 	private boolean match;
+	private long mismatchOffset = -1;
 	
 	/**
 	 * Constructs a verifier with the given bytes.
@@ -21,29 +36,174 @@ public class InputStreamVerifier implements InputStreamProvider.InputStreamUser
 	 *            expected bytes of data, should not be null
 	 */
 	public InputStreamVerifier(byte[] expectedData) {
+		this(expectedData, DEFAULT_CHUNK_SIZE);
+	}
+	
+	/**
+	 * Constructs a verifier with the given bytes, reading the data to be
+	 * verified <code>chunkSize</code> bytes at a time.
+	 * 
+	 * @see #InputStreamVerifier(byte[])
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if any argument is not valid
+	 * @param expectedData
+	 *            expected bytes of data, should not be null
+	 * @param chunkSize
+	 *            size of the reusable read buffer, should be larger than 0
+	 */
+	public InputStreamVerifier(byte[] expectedData, int chunkSize) {
 		if (null == expectedData) {
 			throw new IllegalArgumentException("expected data should be null");
 		}
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunk size should be larger than 0");
+		}
 		this.expectedData = expectedData;
+		this.expectedBuf = ByteBuffer.wrap(expectedData);
+		this.chunkSize = chunkSize;
 	}
 	
+	/**
+	 * Verifies the given stream. A {@link FileInputStream}, or a stream
+	 * {@link InputStreamProvider.ChannelReadable} through a channel, is read
+	 * through its channel, see {@link #use(ReadableByteChannel)}.
+	 */
 	@Override
 	public void use(InputStream in) throws IOException {
-		byte[] buf = new byte[512];
+		ReadableByteChannel channel = channelOf(in);
+		if (null != channel) {
+			use(channel);
+			return;
+		}
+		
+		if (null == buf) {
+			buf = new byte[chunkSize];
+		}
 		int offset = 0;
 		int bytesRead = -1;
 		while (-1 != (bytesRead = in.read(buf, 0, buf.length))) {
-			if (!ArrayUtils.equals(expectedData, offset, buf, 0, bytesRead)) {
-				match = false;
+			int comparable = Math.min(bytesRead, expectedData.length - offset);
+			int mismatch = ArrayUtils.mismatch(expectedData, offset, buf, 0, comparable);
+			if (-1 != mismatch) {
+				mismatched(offset + mismatch);
+				return;
+			}
+			if (comparable < bytesRead) {
+				// the stream carries more data than expected
+				mismatched(expectedData.length);
 				return;
 			}
 			offset += bytesRead;
 		}
 		match = true;
+		mismatchOffset = -1;
+	}
+	
+	private static ReadableByteChannel channelOf(InputStream in) {
+		if (in instanceof FileInputStream) {
+			return ((FileInputStream) in).getChannel();
+		}
+		if (in instanceof InputStreamProvider.ChannelReadable) {
+			return ((InputStreamProvider.ChannelReadable) in).getChannel();
+		}
+		return null;
+	}
+	
+	/**
+	 * Verifies the given channel, reading it into a reusable direct buffer
+	 * and comparing chunk by chunk without further allocation. The channel
+	 * is not closed.
+	 */
+	public void use(ReadableByteChannel channel) throws IOException {
+		if (null == directBuf) {
+			directBuf = ByteBuffer.allocateDirect(chunkSize);
+		}
+		// through Buffer, as ByteBuffer only overrides these methods since Java 9
+		((Buffer) directBuf).clear();
+		int offset = 0;
+		while (-1 != channel.read(directBuf)) {
+			if (directBuf.hasRemaining()) {
+				// keep filling the buffer to compare in as few chunks as possible
+				continue;
+			}
+			if (!compareChunk(offset)) {
+				return;
+			}
+			offset += chunkSize;
+		}
+		if (compareChunk(offset)) {
+			match = true;
+			mismatchOffset = -1;
+		}
+	}
+	
+	/**
+	 * Verifies the remaining bytes of the given buffer in one comparison. The
+	 * position of the buffer is left untouched.
+	 */
+	@Override
+	public void use(ByteBuffer buffer) {
+		((Buffer) expectedBuf).clear();
+		int mismatch = ArrayUtils.mismatch(expectedBuf, buffer);
+		if (-1 == mismatch || (mismatch == buffer.remaining() && mismatch < expectedData.length)) {
+			// as with streams, data shorter than expected matches its prefix
+			match = true;
+			mismatchOffset = -1;
+		} else {
+			mismatched(mismatch);
+		}
+	}
+	
+	/**
+	 * Compares the bytes in the direct buffer with the expected data starting
+	 * at the given offset, and clears the buffer.
+	 * 
+	 * @return <tt>true</tt> if the chunk matches
+	 */
+	private boolean compareChunk(int offset) {
+		((Buffer) directBuf).flip();
+		int bytesRead = directBuf.remaining();
+		int comparable = Math.min(bytesRead, expectedData.length - offset);
+		
+		((Buffer) expectedBuf).clear();
+		((Buffer) expectedBuf).position(offset);
+		((Buffer) expectedBuf).limit(offset + comparable);
+		((Buffer) directBuf).limit(comparable);
+		int mismatch = ArrayUtils.mismatch(expectedBuf, directBuf);
+		((Buffer) directBuf).clear();
+		
+		if (-1 != mismatch) {
+			mismatched(offset + mismatch);
+			return false;
+		}
+		if (comparable < bytesRead) {
+			// the channel carries more data than expected
+			mismatched(expectedData.length);
+			return false;
+		}
+		return true;
+	}
+	
+	private void mismatched(long offset) {
+		match = false;
+		mismatchOffset = offset;
 	}
 	
 	public boolean isMatched() {
 		return match;
 	}
 	
+	/**
+	 * Returns the offset in the stream of the first byte which differs from
+	 * the expected data, or the length of the expected data if the stream
+	 * carries more than that, as found by the last {@link #use(InputStream)}.
+	 * 
+	 * @return the offset of the first mismatch, or -1 if the last stream
+	 *         matched or no stream has been used yet
+	 */
+	public long getMismatchOffset() {
+		return mismatchOffset;
+	}
+	
 }
@@ -1,9 +1,12 @@
 package org.swordess.test.sample;
 
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertTrue;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import org.junit.Before;
@@ -137,6 +140,55 @@ public class InputStreamVerifierTest {
 		expectedData[2] = (byte)99;
 		provider.usedBy(verifier);
 		assertTrue(!verifier.isMatched());
+		assertEquals(2, verifier.getMismatchOffset());
+	}
+	
+	@Test
+	public void use5() throws IOException {
+		byte[] data = new byte[2000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) i;
+		}
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("use5.tmp"));
+		provider.setLogger(mockLog);
+		FileUtil.write(provider.getPath(), data);
+		
+		byte[] expectedData = data.clone();
+		expectedData[1500] = (byte) 99;
+		InputStreamVerifier verifier = new InputStreamVerifier(expectedData);
+		provider.usedBy(verifier);
+		assertFalse(verifier.isMatched());
+		assertEquals(1500, verifier.getMismatchOffset());
+		
+		verifier = new InputStreamVerifier(Arrays.copyOf(data, 1000));
+		provider.usedBy(verifier);
+		assertFalse(verifier.isMatched());
+		assertEquals(1000, verifier.getMismatchOffset());
+	}
+	
+	@Test
+	public void use6() throws IOException {
+		byte[] data = new byte[2000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) i;
+		}
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("use6.tmp"));
+		provider.setLogger(mockLog);
+		FileUtil.write(provider.getPath(), data);
+		
+		// through the channel of the FileInputStream
+		InputStreamVerifier verifier = new InputStreamVerifier(data.clone(), 300);
+		provider.usedBy(verifier);
+		assertTrue(verifier.isMatched());
+		
+		// through the BufferedInputStream, reusing the buffers
+		byte[] expectedData = data.clone();
+		expectedData[1999]++;
+		InputStreamVerifier mismatchedVerifier = new InputStreamVerifier(expectedData, 300);
+		provider.usedBy(Arrays.asList(verifier, mismatchedVerifier));
+		assertTrue(verifier.isMatched());
+		assertFalse(mismatchedVerifier.isMatched());
+		assertEquals(1999, mismatchedVerifier.getMismatchOffset());
 	}
 	
 }
@@ -0,0 +1,69 @@
+package org.swordess.test.sample;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the measurements of any number of providers without locking,
+ * in counters and {@link LogLinearHistogram}s to be scraped at any time.
+ */
+public class LockFreeInputStreamMetrics implements InputStreamMetrics {
+
+	private final LogLinearHistogram openLatency = new LogLinearHistogram();
+	private final LogLinearHistogram useLatency = new LogLinearHistogram();
+	private final LogLinearHistogram bytesPerUse = new LogLinearHistogram();
+	private final LongAdder rewinds = new LongAdder();
+	private final LongAdder closeFailures = new LongAdder();
+
+	@Override
+	public void streamOpened(long nanos) {
+		openLatency.record(nanos);
+	}
+
+	@Override
+	public void streamUsed(long nanos, long bytesDelivered) {
+		useLatency.record(nanos);
+		bytesPerUse.record(bytesDelivered);
+	}
+
+	@Override
+	public void streamRewound() {
+		rewinds.increment();
+	}
+
+	@Override
+	public void closeFailed() {
+		closeFailures.increment();
+	}
+
+	/**
+	 * Returns the time taken to open each stream, in nanoseconds.
+	 */
+	public LogLinearHistogram getOpenLatency() {
+		return openLatency;
+	}
+
+	/**
+	 * Returns the time spent in each <code>InputStreamUser.use</code>, in
+	 * nanoseconds.
+	 */
+	public LogLinearHistogram getUseLatency() {
+		return useLatency;
+	}
+
+	/**
+	 * Returns the number of bytes delivered to each user, whose sum is the
+	 * total number of bytes delivered.
+	 */
+	public LogLinearHistogram getBytesPerUse() {
+		return bytesPerUse;
+	}
+
+	public long getRewindCount() {
+		return rewinds.sum();
+	}
+
+	public long getCloseFailureCount() {
+		return closeFailures.sum();
+	}
+
+}
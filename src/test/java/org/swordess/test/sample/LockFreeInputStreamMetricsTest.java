@@ -0,0 +1,57 @@
+package org.swordess.test.sample;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class LockFreeInputStreamMetricsTest {
+
+	@Test
+	public void histogramBuckets() {
+		for (long value : new long[] { 0, 1, 15, 16, 17, 100, 12345, 1L << 40, Long.MAX_VALUE }) {
+			int bucket = LogLinearHistogram.bucketOf(value);
+			assertTrue(value <= LogLinearHistogram.upperBoundOf(bucket));
+			assertTrue(0 == bucket || value > LogLinearHistogram.upperBoundOf(bucket - 1));
+		}
+	}
+	
+	@Test
+	public void histogramPercentiles() {
+		LogLinearHistogram histogram = new LogLinearHistogram();
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i);
+		}
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1000, histogram.getMax());
+		assertEquals(500.5, histogram.getMean());
+		long median = histogram.getValueAtPercentile(50);
+		assertTrue(median >= 500 && median <= 500 * 1.07);
+		assertEquals(1000, histogram.getValueAtPercentile(100));
+	}
+	
+	@Test
+	public void providerMetrics() throws IOException {
+		InputStreamProvider provider = new InputStreamProvider(FileUtil.ensureExistence("metrics.tmp"));
+		provider.setLogger(Mockito.mock(Logger.class));
+		FileUtil.write(provider.getPath(), new byte[] { 1, 2, 3 });
+		LockFreeInputStreamMetrics metrics = new LockFreeInputStreamMetrics();
+		provider.setMetrics(metrics);
+		
+		InputStreamVerifier verifier = new InputStreamVerifier(new byte[] { 1, 2, 3 });
+		provider.usedBy(verifier);
+		provider.usedBy(Arrays.asList(verifier, verifier));
+		
+		assertEquals(2, metrics.getOpenLatency().getCount());
+		assertEquals(3, metrics.getUseLatency().getCount());
+		assertEquals(9, metrics.getBytesPerUse().getSum());
+		assertEquals(2, metrics.getRewindCount());
+		assertEquals(0, metrics.getCloseFailureCount());
+	}
+	
+}
@@ -0,0 +1,118 @@
+package org.swordess.test.sample;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Compares files with an expected file on disk, mapping both into memory
+ * window by window instead of reading them through streams, so neither file
+ * is loaded into the heap.
+ * <p>
+ * Files of different lengths are reported as mismatched right away, without
+ * comparing their content.
+ */
+public class MappedFileVerifier {
+
+	public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+	private final String expectedPath;
+	private final int windowSize;
+
+	private boolean match;
+	private long mismatchOffset = -1;
+
+	/**
+	 * Constructs a verifier with the given expected file, mapping
+	 * {@value #DEFAULT_WINDOW_SIZE} bytes at a time.
+	 * 
+	 * @see #MappedFileVerifier(String, int)
+	 */
+	public MappedFileVerifier(String expectedPath) throws FileNotFoundException {
+		this(expectedPath, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Constructs a verifier with the given expected file.
+	 * 
+	 * @param expectedPath
+	 *            path of the expected file, should not be null or empty string
+	 * @param windowSize
+	 *            the number of bytes of each file to be mapped at a time,
+	 *            should be larger than 0
+	 * @throws IllegalArgumentException
+	 *             if any argument is not valid
+	 * @throws FileNotFoundException
+	 *             if the expected file does not exist
+	 */
+	public MappedFileVerifier(String expectedPath, int windowSize) throws FileNotFoundException {
+		if (StringUtils.isBlank(expectedPath)) {
+			throw new IllegalArgumentException("path should be non-empty string");
+		}
+		if (!new File(expectedPath).exists()) {
+			throw new FileNotFoundException(expectedPath);
+		}
+		if (windowSize <= 0) {
+			throw new IllegalArgumentException("window size should be larger than 0");
+		}
+		this.expectedPath = expectedPath;
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * Compares the given file with the expected file.
+	 * 
+	 * @param actualPath
+	 *            path of the file to be verified, should not be null
+	 * @return <tt>true</tt> if the two files have the same content
+	 * @throws IOException
+	 *             if either file cannot be read
+	 */
+	public boolean verify(String actualPath) throws IOException {
+		match = false;
+		mismatchOffset = -1;
+
+		try (FileChannel expected = FileChannel.open(new File(expectedPath).toPath(), StandardOpenOption.READ);
+				FileChannel actual = FileChannel.open(new File(actualPath).toPath(), StandardOpenOption.READ)) {
+			long size = expected.size();
+			if (size != actual.size()) {
+				return false;
+			}
+
+			for (long position = 0; position < size; position += windowSize) {
+				long length = Math.min(windowSize, size - position);
+				int mismatch = ArrayUtils.mismatch(
+						expected.map(MapMode.READ_ONLY, position, length),
+						actual.map(MapMode.READ_ONLY, position, length));
+				if (-1 != mismatch) {
+					mismatchOffset = position + mismatch;
+					return false;
+				}
+			}
+		}
+
+		match = true;
+		return true;
+	}
+
+	public boolean isMatched() {
+		return match;
+	}
+
+	/**
+	 * Returns the offset of the first byte which differs between the files
+	 * compared by the last {@link #verify(String)}.
+	 * 
+	 * @return the offset of the first mismatch, or -1 if the files matched,
+	 *         had different lengths or no file has been verified yet
+	 */
+	public long getMismatchOffset() {
+		return mismatchOffset;
+	}
+
+}
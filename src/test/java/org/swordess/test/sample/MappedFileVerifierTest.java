@@ -0,0 +1,61 @@
+package org.swordess.test.sample;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedFileVerifierTest {
+
+	private String expectedPath;
+	private String actualPath;
+	private byte[] data;
+	
+	@Before
+	public void setUp() throws IOException {
+		expectedPath = FileUtil.ensureExistence("mapped-expected.tmp");
+		actualPath = FileUtil.ensureExistence("mapped-actual.tmp");
+		data = new byte[10000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i * 7);
+		}
+		FileUtil.write(expectedPath, data);
+	}
+	
+	@Test(expected = FileNotFoundException.class)
+	public void instantiateMappedFileVerifier1() throws FileNotFoundException {
+		new MappedFileVerifier(FileUtil.ensureNonExistence("mapped-none.tmp"));
+	}
+	
+	@Test
+	public void verify1() throws IOException {
+		FileUtil.write(actualPath, data);
+		MappedFileVerifier verifier = new MappedFileVerifier(expectedPath, 1000);
+		assertTrue(verifier.verify(actualPath));
+		assertEquals(-1, verifier.getMismatchOffset());
+	}
+	
+	@Test
+	public void verify2() throws IOException {
+		byte[] actualData = data.clone();
+		actualData[4321]++;
+		FileUtil.write(actualPath, actualData);
+		MappedFileVerifier verifier = new MappedFileVerifier(expectedPath, 1000);
+		assertFalse(verifier.verify(actualPath));
+		assertEquals(4321, verifier.getMismatchOffset());
+	}
+	
+	@Test
+	public void verify3() throws IOException {
+		FileUtil.write(actualPath, new byte[] { 0 });
+		MappedFileVerifier verifier = new MappedFileVerifier(expectedPath);
+		assertFalse(verifier.verify(actualPath));
+		assertFalse(verifier.isMatched());
+	}
+	
+}
@@ -0,0 +1,245 @@
+package org.swordess.test.sample;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.InvalidMarkException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Provides the file mapped into memory, so its content is not copied into
+ * the heap of every user(client).
+ * <p>
+ * The file is mapped on first use and the mapping is shared by all later
+ * uses until the provider is closed. {@link #close()} waits for the users
+ * still reading the mapping and then releases it right away instead of
+ * leaving it to the garbage collector, where the platform allows it.
+ * <p>
+ * NOTE:
+ * <ul>
+ * <li>files larger than 2 GB cannot be mapped</li>
+ * <li>users(clients) must not keep the stream or buffer they are given
+ * beyond their <code>use</code> method</li>
+ * <li>the file must not be truncated while it is mapped</li>
+ * </ul>
+ */
+public class MappedInputStreamProvider extends InputStreamProvider implements Closeable {
+
+	private MappedByteBuffer mapped;
+	private int activeUses;
+	private boolean closed;
+
+	/**
+	 * Constructs a mapped stream provided with the given file path.
+	 * 
+	 * @see InputStreamProvider#InputStreamProvider(String)
+	 */
+	public MappedInputStreamProvider(String path) throws FileNotFoundException {
+		super(path);
+	}
+
+	/**
+	 * Returns a stream over the mapping, supporting <code>mark</code> and
+	 * <code>reset</code> without copying.
+	 */
+	@Override
+	protected InputStream open() throws IOException {
+		return new ByteBufferInputStream(acquire());
+	}
+
+	/**
+	 * Consume the mapped file with the specified user(client), which reads
+	 * the mapping directly.
+	 * 
+	 * @param bufferUser
+	 *            the user(client) who want to use the buffer, should not be
+	 *            null
+	 */
+	public void bufferUsedBy(ByteBufferUser bufferUser) {
+		try {
+			ByteBuffer buffer = acquire();
+			try {
+				bufferUser.use(buffer);
+			} finally {
+				release();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Waits for the current users(clients) and releases the mapping. The
+	 * provider cannot be used afterwards.
+	 */
+	@Override
+	public synchronized void close() {
+		closed = true;
+		try {
+			while (activeUses > 0) {
+				wait();
+			}
+		} catch (InterruptedException e) {
+			// leaves the mapping to the garbage collector
+			Thread.currentThread().interrupt();
+			mapped = null;
+			return;
+		}
+		if (null != mapped) {
+			unmap(mapped);
+			mapped = null;
+		}
+	}
+
+	/**
+	 * Maps the file unless it is mapped already.
+	 * 
+	 * @return a read-only view of the mapping with a position of its own
+	 */
+	private synchronized ByteBuffer acquire() throws IOException {
+		if (closed) {
+			throw new IOException("provider closed");
+		}
+		if (null == mapped) {
+			try (FileChannel channel = FileChannel.open(Paths.get(getPath()), StandardOpenOption.READ)) {
+				if (channel.size() > Integer.MAX_VALUE) {
+					throw new IOException(getPath() + " is too large to be mapped");
+				}
+				mapped = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			}
+		}
+		activeUses++;
+		return mapped.asReadOnlyBuffer();
+	}
+
+	private synchronized void release() {
+		activeUses--;
+		notifyAll();
+	}
+
+	/**
+	 * Releases the given mapping through <code>Unsafe.invokeCleaner</code>
+	 * of Java 9 and later. On older platforms the mapping is released by the
+	 * garbage collector.
+	 */
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			invokeCleaner.invoke(theUnsafe.get(null), buffer);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// not available, left to the garbage collector
+		}
+	}
+
+	/**
+	 * Indicates a client to use the mapped content of a file directly. The
+	 * buffer is read-only, and its position and limit may be changed freely.
+	 */
+	public static interface ByteBufferUser {
+
+		/**
+		 * Specify how to use the buffer passed in.
+		 * 
+		 * @param buffer
+		 * @throws IOException
+		 */
+		public void use(ByteBuffer buffer) throws IOException;
+
+	}
+
+	/**
+	 * A stream over a view of the mapping, which releases it when closed.
+	 */
+	private class ByteBufferInputStream extends InputStream {
+
+		private final ByteBuffer buffer;
+		private boolean closed;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() throws IOException {
+			ensureOpen();
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			ensureOpen();
+			if (0 == len) {
+				return 0;
+			}
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int n = Math.min(len, buffer.remaining());
+			buffer.get(b, off, n);
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			ensureOpen();
+			int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+			// through Buffer, as ByteBuffer only overrides these methods since Java 9
+			((Buffer) buffer).position(buffer.position() + skipped);
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			ensureOpen();
+			return buffer.remaining();
+		}
+
+		@Override
+		public boolean markSupported() {
+			return true;
+		}
+
+		@Override
+		public synchronized void mark(int readlimit) {
+			((Buffer) buffer).mark();
+		}
+
+		@Override
+		public synchronized void reset() throws IOException {
+			ensureOpen();
+			try {
+				((Buffer) buffer).reset();
+			} catch (InvalidMarkException e) {
+				throw new IOException("mark not set");
+			}
+		}
+
+		@Override
+		public void close() {
+			if (!closed) {
+				closed = true;
+				release();
+			}
+		}
+
+		private void ensureOpen() throws IOException {
+			if (closed) {
+				throw new IOException("stream closed");
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,80 @@
+package org.swordess.test.sample;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.swordess.test.sample.InputStreamProvider.InputStreamUser;
+
+public class MappedInputStreamProviderTest {
+
+	private MappedInputStreamProvider provider;
+	private byte[] data;
+	
+	@Before
+	public void setUp() throws IOException {
+		String path = FileUtil.ensureExistence("mapped.tmp");
+		data = new byte[5000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i * 3);
+		}
+		FileUtil.write(path, data);
+		provider = new MappedInputStreamProvider(path);
+		provider.setLogger(Mockito.mock(Logger.class));
+	}
+	
+	@After
+	public void tearDown() {
+		provider.close();
+	}
+	
+	@Test
+	public void usedByStreamUsers() {
+		InputStreamVerifier first = new InputStreamVerifier(data, 1000);
+		InputStreamVerifier second = new InputStreamVerifier(data, 333);
+		provider.usedBy(first);
+		provider.usedBy(Arrays.asList(first, second));
+		assertTrue(first.isMatched());
+		assertTrue(second.isMatched());
+	}
+	
+	@Test
+	public void usedByBufferUser() {
+		byte[] expectedData = data.clone();
+		InputStreamVerifier verifier = new InputStreamVerifier(expectedData);
+		provider.bufferUsedBy(verifier);
+		assertTrue(verifier.isMatched());
+		
+		expectedData[4000]++;
+		provider.bufferUsedBy(verifier);
+		assertFalse(verifier.isMatched());
+		assertEquals(4000, verifier.getMismatchOffset());
+	}
+	
+	@Test(expected = IOException.class)
+	public void closedStream() throws Throwable {
+		final Throwable[] failure = new Throwable[1];
+		provider.usedBy(new InputStreamUser() {
+			@Override
+			public void use(InputStream in) throws IOException {
+				in.close();
+				try {
+					in.read();
+				} catch (IOException e) {
+					failure[0] = e;
+				}
+			}
+		});
+		throw failure[0];
+	}
+	
+}